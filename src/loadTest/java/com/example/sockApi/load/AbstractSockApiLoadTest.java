@@ -0,0 +1,197 @@
+package com.example.sockApi.load;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Slf4j
+public abstract class AbstractSockApiLoadTest {
+
+    protected static final String[] COLORS = {"Red", "Green", "Blue", "Black", "White", "Yellow", "Grey", "Pink"};
+
+    protected static final String HOT_COLOR = "Red";
+
+    protected static final String HOT_COTTON_PERCENTAGE = "56";
+
+    private static final Duration DURATION = Duration.ofSeconds(Long.getLong("load.durationSeconds", 15));
+
+    private static final int THREADS = Integer.getInteger("load.threads", 16);
+
+    private static final int IDLE_CONNECTIONS = Integer.getInteger("load.idleConnections", 1_000);
+
+    @LocalServerPort
+    private int port;
+
+    private final String target;
+
+    private final String reportFileName;
+
+    protected HttpClient httpClient;
+
+    protected LoadGenerator loadGenerator;
+
+    private final List<ScenarioResult> results = new ArrayList<>();
+
+    private final Instant startedAt = Instant.now();
+
+    protected AbstractSockApiLoadTest(String target, String reportFileName) {
+        this.target = target;
+        this.reportFileName = reportFileName;
+    }
+
+    @BeforeAll
+    void seedInventory() throws IOException, InterruptedException {
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        loadGenerator = new LoadGenerator(httpClient);
+
+        for (String color : COLORS) {
+            for (int cotton = 0; cotton <= 100; cotton += 5) {
+                send(post("/income", color, String.valueOf(cotton), 100));
+            }
+        }
+        send(post("/income", HOT_COLOR, HOT_COTTON_PERCENTAGE, 1_000_000));
+    }
+
+    @AfterAll
+    void writeReport() throws IOException {
+        LoadReport report = new LoadReport(target, startedAt, results);
+        Path file = report.writeTo(Path.of(System.getProperty("load.reportDir", "build/reports/load")), reportFileName);
+        log.warn("Load report written to {}:\n{}", file, report.toJson());
+    }
+
+    @Test
+    void mixedFilterReads() throws InterruptedException {
+        ScenarioResult result = loadGenerator.run(LoadScenario.timed("mixed-filter-reads", THREADS, DURATION,
+                (worker, iteration) -> HttpRequest.newBuilder(uri(randomReadQuery())).GET().build()));
+
+        record(result);
+        assertEquals(0, result.errors());
+    }
+
+    @Test
+    void hotKeyContention() throws InterruptedException {
+        ScenarioResult result = loadGenerator.run(LoadScenario.timed("hot-key-income-outcome", THREADS, DURATION,
+                (worker, iteration) -> post(iteration % 2 == 0 ? "/income" : "/outcome", HOT_COLOR, HOT_COTTON_PERCENTAGE, 1)));
+
+        record(result);
+        assertTrue(result.successful() > 0);
+    }
+
+    @Test
+    void readsWithIdleConnections() throws InterruptedException {
+        List<CompletableFuture<HttpResponse<InputStream>>> idleConnections = new ArrayList<>(IDLE_CONNECTIONS);
+        try {
+            for (int connection = 0; connection < IDLE_CONNECTIONS; connection++) {
+                idleConnections.add(httpClient.sendAsync(HttpRequest.newBuilder(uri("/changes"))
+                                .header("Accept", "text/event-stream")
+                                .build(),
+                        HttpResponse.BodyHandlers.ofInputStream()));
+            }
+            long open = awaitOpen(idleConnections, Duration.ofSeconds(30));
+
+            ScenarioResult result = loadGenerator.run(LoadScenario.timed("reads-with-" + open + "-idle-connections",
+                    THREADS, DURATION, (worker, iteration) -> HttpRequest.newBuilder(uri(randomReadQuery())).GET().build()));
+
+            record(result);
+            assertEquals(IDLE_CONNECTIONS, open);
+            assertEquals(0, result.errors());
+        } finally {
+            idleConnections.forEach(AbstractSockApiLoadTest::close);
+        }
+    }
+
+    protected void record(ScenarioResult result) {
+        synchronized (results) {
+            results.add(result);
+        }
+    }
+
+    private static long awaitOpen(List<CompletableFuture<HttpResponse<InputStream>>> connections, Duration timeout)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        long open = 0;
+        for (CompletableFuture<HttpResponse<InputStream>> connection : connections) {
+            try {
+                HttpResponse<InputStream> response = connection.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (response.statusCode() == 200) {
+                    open++;
+                }
+            } catch (ExecutionException | TimeoutException e) {
+                log.debug("Idle connection was not opened", e);
+            }
+        }
+        return open;
+    }
+
+    private static void close(CompletableFuture<HttpResponse<InputStream>> connection) {
+        HttpResponse<InputStream> response = connection.getNow(null);
+        if (response == null) {
+            connection.cancel(true);
+            return;
+        }
+        try {
+            response.body().close();
+        } catch (IOException e) {
+            log.debug("Idle connection was not closed cleanly", e);
+        }
+    }
+
+    private static String randomReadQuery() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String color = COLORS[random.nextInt(COLORS.length)];
+        int cotton = random.nextInt(21) * 5;
+        return switch (random.nextInt(6)) {
+            case 0 -> "?color=" + color;
+            case 1 -> "?exactCottonPercentage=" + cotton;
+            case 2 -> "?minCottonPercentage=" + cotton + "&maxCottonPercentage=" + Math.min(cotton + 30, 100);
+            case 3 -> "?color=" + color + "&minCottonPercentage=" + cotton + "&sortBy=COTTON_PERCENTAGE_DESC";
+            case 4 -> "?sortBy=COLOR_ASC";
+            default -> "/count?color=" + color + "&maxCottonPercentage=" + cotton;
+        };
+    }
+
+    protected HttpRequest post(String path, String color, String cottonPercentage, int count) {
+        String query = "?color=" + color + "&cottonPercentage=" + cottonPercentage + "&count=" + count;
+        return HttpRequest.newBuilder(uri(path + query))
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build();
+    }
+
+    private void send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() / 100 != 2) {
+            throw new IllegalStateException("Seeding request " + request.uri() + " failed: " + response.body());
+        }
+    }
+
+    protected URI uri(String pathAndQuery) {
+        return URI.create("http://localhost:" + port + "/api/socks" + pathAndQuery);
+    }
+}
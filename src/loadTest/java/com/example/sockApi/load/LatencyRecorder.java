@@ -0,0 +1,60 @@
+package com.example.sockApi.load;
+
+import java.util.Arrays;
+
+class LatencyRecorder {
+
+    private long[] latencies = new long[1024];
+
+    private int size;
+
+    private long errors;
+
+    void record(long latencyNanos, boolean success) {
+        if (size == latencies.length) {
+            latencies = Arrays.copyOf(latencies, size * 2);
+        }
+        latencies[size++] = latencyNanos;
+        if (!success) {
+            errors++;
+        }
+    }
+
+    static ScenarioResult summarize(LoadScenario scenario, long elapsedNanos, LatencyRecorder... recorders) {
+        int total = 0;
+        long errors = 0;
+        for (LatencyRecorder recorder : recorders) {
+            total += recorder.size;
+            errors += recorder.errors;
+        }
+
+        long[] merged = new long[total];
+        int offset = 0;
+        for (LatencyRecorder recorder : recorders) {
+            System.arraycopy(recorder.latencies, 0, merged, offset, recorder.size);
+            offset += recorder.size;
+        }
+        Arrays.sort(merged);
+
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        return new ScenarioResult(
+                scenario.name(),
+                scenario.concurrency(),
+                total,
+                errors,
+                seconds,
+                seconds > 0 ? total / seconds : 0,
+                percentileMillis(merged, 0.50),
+                percentileMillis(merged, 0.99),
+                percentileMillis(merged, 0.999),
+                merged.length == 0 ? 0 : merged[merged.length - 1] / 1_000_000.0);
+    }
+
+    private static double percentileMillis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(index, 0)] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.sockApi.load;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+@Slf4j
+public class LoadGenerator {
+
+    private final HttpClient httpClient;
+
+    public LoadGenerator(HttpClient httpClient) {
+        this.httpClient = httpClient;
+    }
+
+    public ScenarioResult run(LoadScenario scenario) throws InterruptedException {
+        log.info("Running load scenario {} with {} workers", scenario.name(), scenario.concurrency());
+
+        ExecutorService executor = Executors.newFixedThreadPool(scenario.concurrency());
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<LatencyRecorder>> workers = new ArrayList<>();
+        try {
+            for (int worker = 0; worker < scenario.concurrency(); worker++) {
+                int workerId = worker;
+                workers.add(executor.submit(() -> runWorker(scenario, workerId, start)));
+            }
+
+            long startedAt = System.nanoTime();
+            start.countDown();
+
+            LatencyRecorder[] recorders = new LatencyRecorder[workers.size()];
+            for (int i = 0; i < workers.size(); i++) {
+                recorders[i] = workers.get(i).get();
+            }
+            ScenarioResult result = LatencyRecorder.summarize(scenario, System.nanoTime() - startedAt, recorders);
+            log.info("Load scenario {} finished: {}", scenario.name(), result);
+            return result;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Load scenario " + scenario.name() + " failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private LatencyRecorder runWorker(LoadScenario scenario, int worker, CountDownLatch start) throws InterruptedException {
+        LatencyRecorder recorder = new LatencyRecorder();
+        start.await();
+
+        long deadline = scenario.duration() == null ? Long.MAX_VALUE : System.nanoTime() + scenario.duration().toNanos();
+        for (long iteration = 0; iteration < scenario.maxRequestsPerWorker() && System.nanoTime() < deadline; iteration++) {
+            long sentAt = System.nanoTime();
+            boolean success;
+            try {
+                HttpResponse<Void> response = httpClient.send(
+                        scenario.requestFactory().create(worker, iteration),
+                        HttpResponse.BodyHandlers.discarding());
+                success = response.statusCode() / 100 == 2;
+            } catch (IOException e) {
+                log.debug("Request of scenario {} failed", scenario.name(), e);
+                success = false;
+            }
+            recorder.record(System.nanoTime() - sentAt, success);
+        }
+        return recorder;
+    }
+}
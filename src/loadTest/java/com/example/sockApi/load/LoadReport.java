@@ -0,0 +1,17 @@
+package com.example.sockApi.load;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+public record LoadReport(String target, Instant startedAt, List<ScenarioResult> scenarios) {
+
+    public String toJson() throws IOException {
+        return ReportJson.toJson(this);
+    }
+
+    public Path writeTo(Path directory, String fileName) throws IOException {
+        return ReportJson.writeTo(this, directory, fileName);
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.sockApi.load;
+
+import java.net.http.HttpRequest;
+import java.time.Duration;
+
+public record LoadScenario(String name,
+                           int concurrency,
+                           Duration duration,
+                           long maxRequestsPerWorker,
+                           RequestFactory requestFactory) {
+
+    @FunctionalInterface
+    public interface RequestFactory {
+        HttpRequest create(int worker, long iteration);
+    }
+
+    public static LoadScenario timed(String name, int concurrency, Duration duration, RequestFactory requestFactory) {
+        return new LoadScenario(name, concurrency, duration, Long.MAX_VALUE, requestFactory);
+    }
+
+    public static LoadScenario counted(String name, int concurrency, long requestsPerWorker, RequestFactory requestFactory) {
+        return new LoadScenario(name, concurrency, null, requestsPerWorker, requestFactory);
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.sockApi.load;
+
+import java.io.ByteArrayOutputStream;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+public class MultipartBody {
+
+    private final String boundary = "sock-load-" + UUID.randomUUID();
+
+    private final byte[] body;
+
+    public MultipartBody(String fieldName, String fileName, String contentType, byte[] content) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(content.length + 512);
+        String head = "--" + boundary + "\r\n"
+                + "Content-Disposition: form-data; name=\"" + fieldName + "\"; filename=\"" + fileName + "\"\r\n"
+                + "Content-Type: " + contentType + "\r\n\r\n";
+        out.writeBytes(head.getBytes(StandardCharsets.UTF_8));
+        out.writeBytes(content);
+        out.writeBytes(("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.UTF_8));
+        this.body = out.toByteArray();
+    }
+
+    public String contentType() {
+        return "multipart/form-data; boundary=" + boundary;
+    }
+
+    public HttpRequest.BodyPublisher publisher() {
+        return HttpRequest.BodyPublishers.ofByteArray(body);
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.sockApi.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+final class ReportJson {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .enable(SerializationFeature.INDENT_OUTPUT);
+
+    private ReportJson() {
+    }
+
+    static String toJson(Object report) throws IOException {
+        return MAPPER.writeValueAsString(report);
+    }
+
+    static Path writeTo(Object report, Path directory, String fileName) throws IOException {
+        Files.createDirectories(directory);
+        Path file = directory.resolve(fileName);
+        MAPPER.writeValue(file.toFile(), report);
+        return file;
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.sockApi.load;
+
+public record ScenarioResult(String scenario,
+                             int concurrency,
+                             long requests,
+                             long errors,
+                             double durationSeconds,
+                             double throughputPerSecond,
+                             double p50Millis,
+                             double p99Millis,
+                             double p999Millis,
+                             double maxMillis) {
+
+    public long successful() {
+        return requests - errors;
+    }
+}
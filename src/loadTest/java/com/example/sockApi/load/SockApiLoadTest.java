@@ -0,0 +1,51 @@
+package com.example.sockApi.load;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("loadtest")
+class SockApiLoadTest extends AbstractSockApiLoadTest {
+
+    private static final int BATCH_UPLOADS = Integer.getInteger("load.batch.uploads", 4);
+
+    private static final int BATCH_PAYLOAD_BYTES = Integer.getInteger("load.batch.payloadBytes", 10 * 1024 * 1024 - 64 * 1024);
+
+    SockApiLoadTest() {
+        super("blocking", "sock-api-load.json");
+    }
+
+    @Test
+    void concurrentBatchUploads() throws InterruptedException {
+        MultipartBody body = new MultipartBody("file", "socks.csv", "text/csv", csvPayload(BATCH_PAYLOAD_BYTES));
+        ScenarioResult result = loadGenerator.run(LoadScenario.counted("concurrent-batch-uploads", BATCH_UPLOADS, 1,
+                (worker, iteration) -> HttpRequest.newBuilder(uri("/batch"))
+                        .header("Content-Type", body.contentType())
+                        .timeout(Duration.ofMinutes(30))
+                        .POST(body.publisher())
+                        .build()));
+
+        record(result);
+        assertTrue(result.successful() > 0);
+    }
+
+    private static byte[] csvPayload(int targetBytes) {
+        StringBuilder csv = new StringBuilder(targetBytes);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (csv.length() < targetBytes - 32) {
+            csv.append(COLORS[random.nextInt(COLORS.length)])
+                    .append(',').append(random.nextInt(21) * 5)
+                    .append(',').append(random.nextInt(1, 50))
+                    .append('\n');
+        }
+        return csv.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.sockApi.load;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Slf4j
+class StartupBenchmarkTest {
+
+    private static final String MAIN_CLASS = "com.example.sockApi.SockApiApplication";
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(Long.getLong("load.startup.timeoutSeconds", 120));
+
+    private static final int RUNS = Integer.getInteger("load.startup.runs", 3);
+
+    private static final long POLL_INTERVAL_MILLIS = 10;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofMillis(200))
+            .build();
+
+    @Test
+    void timeToFirstSuccessfulRequest() throws IOException, InterruptedException {
+        Instant startedAt = Instant.now();
+        String classpath = System.getProperty("java.class.path");
+        List<StartupResult> results = new ArrayList<>();
+
+        results.add(measure("default", "loadtest", List.of(), classpath));
+        results.add(measure("fast-startup", "loadtest,fast-startup", List.of(), classpath));
+
+        String cdsArchive = System.getProperty("load.cdsArchive");
+        String cdsClasspath = System.getProperty("load.cdsClasspath");
+        if (cdsArchive != null && cdsClasspath != null && Files.exists(Path.of(cdsArchive))) {
+            // the archive is only used when the classpath it was dumped with is a prefix of the runtime one
+            results.add(measure("fast-startup-cds", "loadtest,fast-startup",
+                    List.of("-XX:SharedArchiveFile=" + cdsArchive, "-Xshare:auto"),
+                    cdsClasspath + File.pathSeparator + classpath));
+        } else {
+            log.warn("No class-data-sharing archive at {}, run ./gradlew cdsArchive to measure it", cdsArchive);
+        }
+
+        StartupReport report = new StartupReport(startedAt, results);
+        Path file = report.writeTo(Path.of(System.getProperty("load.reportDir", "build/reports/load")), "sock-api-startup.json");
+        log.warn("Startup report written to {}:\n{}", file, report.toJson());
+
+        results.forEach(result -> assertEquals(RUNS, result.timeToFirstSuccessfulRequestMillis().size()));
+    }
+
+    private StartupResult measure(String variant, String profiles, List<String> jvmArgs, String classpath)
+            throws IOException, InterruptedException {
+        List<Long> samples = new ArrayList<>(RUNS);
+        for (int run = 0; run < RUNS; run++) {
+            samples.add(startOnce(variant, profiles, jvmArgs, classpath));
+        }
+        StartupResult result = StartupResult.of(variant, profiles, jvmArgs, samples);
+        log.info("Startup variant {} finished: {}", variant, result);
+        return result;
+    }
+
+    private long startOnce(String variant, String profiles, List<String> jvmArgs, String classpath)
+            throws IOException, InterruptedException {
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmArgs);
+        command.addAll(List.of("-cp", classpath, MAIN_CLASS,
+                "--spring.profiles.active=" + profiles,
+                "--server.port=" + port));
+
+        long startedAt = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/socks/count"))
+                    .timeout(Duration.ofSeconds(5))
+                    .GET()
+                    .build();
+            long deadline = startedAt + STARTUP_TIMEOUT.toNanos();
+            while (System.nanoTime() < deadline) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Startup variant " + variant + " exited with code " + process.exitValue());
+                }
+                try {
+                    HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                    if (response.statusCode() == 200) {
+                        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+                    }
+                } catch (IOException e) {
+                    log.trace("Startup variant {} is not accepting requests yet", variant);
+                }
+                Thread.sleep(POLL_INTERVAL_MILLIS);
+            }
+            throw new IllegalStateException("Startup variant " + variant + " did not answer within " + STARTUP_TIMEOUT);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.sockApi.load;
+
+import java.util.List;
+
+public record StartupResult(String variant,
+                            String profiles,
+                            List<String> jvmArgs,
+                            List<Long> timeToFirstSuccessfulRequestMillis,
+                            long medianMillis,
+                            long minMillis) {
+
+    public static StartupResult of(String variant, String profiles, List<String> jvmArgs, List<Long> samples) {
+        List<Long> sorted = samples.stream().sorted().toList();
+        return new StartupResult(variant, profiles, jvmArgs, samples, sorted.get(sorted.size() / 2), sorted.get(0));
+    }
+}
@@ -2,9 +2,11 @@ package com.example.sockApi;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
 @EnableWebMvc
 public class SockApiApplication {
 
@@ -0,0 +1,17 @@
+package com.example.sockApi.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "sock.batch")
+@Getter
+@Setter
+public class BatchProperties {
+
+    private int chunkSize = 1_000;
+
+    private int maxReportedErrors = 1_000;
+
+    private int maxReportedDifferences = 1_000;
+}
@@ -0,0 +1,34 @@
+package com.example.sockApi.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "sock.bulkhead")
+@Getter
+@Setter
+public class BulkheadProperties {
+
+    private Limit batch = new Limit(2, Duration.ZERO);
+
+    private Limit interactive = new Limit(150, Duration.ofMillis(100));
+
+    @Getter
+    @Setter
+    public static class Limit {
+
+        private int maxConcurrent;
+
+        private Duration maxWait;
+
+        public Limit() {
+        }
+
+        public Limit(int maxConcurrent, Duration maxWait) {
+            this.maxConcurrent = maxConcurrent;
+            this.maxWait = maxWait;
+        }
+    }
+}
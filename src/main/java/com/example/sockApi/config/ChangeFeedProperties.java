@@ -0,0 +1,21 @@
+package com.example.sockApi.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "sock.changes")
+@Getter
+@Setter
+public class ChangeFeedProperties {
+
+    private int replayBufferSize = 10_000;
+
+    private int subscriberQueueSize = 1_000;
+
+    private int dispatcherThreads = 4;
+
+    private Duration emitterTimeout = Duration.ofMinutes(30);
+}
@@ -0,0 +1,139 @@
+package com.example.sockApi.config;
+
+import com.example.sockApi.datasource.ReadYourWritesTracker;
+import com.example.sockApi.datasource.ReplicaDataSource;
+import com.example.sockApi.datasource.ReplicaRoutingDataSource;
+import com.example.sockApi.datasource.ShardRoutingDataSource;
+import com.example.sockApi.web.WarehouseContext;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(DataSourceProperties.class)
+@Slf4j
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties(prefix = "spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName(ReplicaRoutingDataSource.PRIMARY);
+        dataSource.setRegisterMbeans(true);
+        return dataSource;
+    }
+
+    @Bean
+    public HikariDataSource batchDataSource(DataSourceProperties dataSourceProperties,
+                                            RoutingDataSourceProperties properties) {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName(ReplicaRoutingDataSource.BATCH);
+        dataSource.setMaximumPoolSize(properties.getBatch().getMaximumPoolSize());
+        dataSource.setConnectionTimeout(properties.getBatch().getConnectionTimeout().toMillis());
+        dataSource.setRegisterMbeans(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource routingDataSource(HikariDataSource primaryDataSource,
+                                                      HikariDataSource batchDataSource,
+                                                      RoutingDataSourceProperties properties) {
+        List<ReplicaDataSource> replicas = new ArrayList<>();
+        for (int i = 0; i < properties.getReplicas().size(); i++) {
+            RoutingDataSourceProperties.Replica replica = properties.getReplicas().get(i);
+            String name = "replica-" + i;
+            replicas.add(new ReplicaDataSource(name, createReplicaPool(name, replica), primaryDataSource));
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, batchDataSource, replicas,
+                new ReadYourWritesTracker(properties.getReadYourWritesWindow()));
+    }
+
+    @Bean
+    public ShardRoutingDataSource shardRoutingDataSource(ReplicaRoutingDataSource routingDataSource,
+                                                         ShardingProperties properties) {
+        // set before the first routed connection, Flyway and startup listeners included, is opened
+        WarehouseContext.setDefaultWarehouseId(properties.getDefaultWarehouse());
+        Map<String, DataSource> extraShards = new LinkedHashMap<>();
+        Map<Integer, String> shardsByWarehouse = new HashMap<>();
+        for (ShardingProperties.Shard shard : properties.getShards()) {
+            if (ShardRoutingDataSource.HOME.equals(shard.getName()) || extraShards.containsKey(shard.getName())) {
+                throw new IllegalStateException("Duplicate shard name " + shard.getName());
+            }
+            HikariDataSource pool = createShardPool(shard);
+            migrateShard(shard.getName(), pool);
+            extraShards.put(shard.getName(), pool);
+            for (Integer warehouseId : shard.getWarehouses()) {
+                String previous = shardsByWarehouse.put(warehouseId, shard.getName());
+                if (previous != null) {
+                    throw new IllegalStateException("Warehouse " + warehouseId + " is assigned to shards "
+                            + previous + " and " + shard.getName());
+                }
+            }
+        }
+        return new ShardRoutingDataSource(routingDataSource, extraShards, shardsByWarehouse);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+    }
+
+    private static void migrateShard(String name, DataSource dataSource) {
+        int applied = Flyway.configure()
+                .dataSource(dataSource)
+                .baselineOnMigrate(true)
+                .load()
+                .migrate()
+                .migrationsExecuted;
+        log.info("Shard {} schema is up to date ({} migrations applied)", name, applied);
+    }
+
+    private static HikariDataSource createShardPool(ShardingProperties.Shard shard) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("shard-" + shard.getName());
+        dataSource.setJdbcUrl(shard.getUrl());
+        dataSource.setUsername(shard.getUsername());
+        dataSource.setPassword(shard.getPassword());
+        if (shard.getDriverClassName() != null) {
+            dataSource.setDriverClassName(shard.getDriverClassName());
+        }
+        dataSource.setMaximumPoolSize(shard.getMaximumPoolSize());
+        dataSource.setConnectionTimeout(shard.getConnectionTimeout().toMillis());
+        dataSource.setRegisterMbeans(true);
+        return dataSource;
+    }
+
+    private static HikariDataSource createReplicaPool(String name, RoutingDataSourceProperties.Replica replica) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName(name);
+        dataSource.setJdbcUrl(replica.getUrl());
+        dataSource.setUsername(replica.getUsername());
+        dataSource.setPassword(replica.getPassword());
+        if (replica.getDriverClassName() != null) {
+            dataSource.setDriverClassName(replica.getDriverClassName());
+        }
+        dataSource.setMaximumPoolSize(replica.getMaximumPoolSize());
+        dataSource.setConnectionTimeout(replica.getConnectionTimeout().toMillis());
+        dataSource.setReadOnly(true);
+        dataSource.setRegisterMbeans(true);
+        dataSource.setInitializationFailTimeout(-1);
+        return dataSource;
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.sockApi.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "sock.hot-keys")
+@Getter
+@Setter
+public class HotKeyProperties {
+
+    private boolean enabled = true;
+
+    private int topK = 20;
+
+    private int sketchDepth = 4;
+
+    private int sketchWidth = 1_024;
+
+    private Duration window = Duration.ofMinutes(1);
+
+    private int windowBuckets = 6;
+}
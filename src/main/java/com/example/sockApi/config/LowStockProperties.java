@@ -0,0 +1,20 @@
+package com.example.sockApi.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@ConfigurationProperties(prefix = "sock.low-stock")
+@Getter
+@Setter
+public class LowStockProperties {
+
+    private int defaultThreshold;
+
+    private Map<String, Integer> colors = new HashMap<>();
+
+    private Map<String, Integer> keys = new HashMap<>();
+}
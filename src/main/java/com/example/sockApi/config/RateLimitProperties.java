@@ -0,0 +1,55 @@
+package com.example.sockApi.config;
+
+import com.example.sockApi.enums.EndpointGroup;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "sock.rate-limit")
+@Getter
+@Setter
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    // per-client buckets kept per endpoint group, clients beyond it share one bucket until idle ones are evicted
+    private int maxClients = 10_000;
+
+    private Group read = new Group(new Limit(5000, 2500), new Limit(500, 250));
+
+    private Group write = new Group(new Limit(2000, 1000), new Limit(200, 100));
+
+    private Group batch = new Group(new Limit(10, 2), new Limit(2, 0.2));
+
+    public Group forGroup(EndpointGroup endpointGroup) {
+        return switch (endpointGroup) {
+            case READ -> read;
+            case WRITE -> write;
+            case BATCH -> batch;
+        };
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Group {
+
+        private Limit global;
+
+        private Limit perClient;
+    }
+
+    @Getter
+    @Setter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Limit {
+
+        private long capacity;
+
+        private double refillPerSecond;
+    }
+}
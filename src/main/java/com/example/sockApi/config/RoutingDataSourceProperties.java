@@ -0,0 +1,49 @@
+package com.example.sockApi.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "sock.datasource")
+@Getter
+@Setter
+public class RoutingDataSourceProperties {
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    private Batch batch = new Batch();
+
+    private Duration readYourWritesWindow = Duration.ZERO;
+
+    private Duration healthCheckTimeout = Duration.ofSeconds(1);
+
+    @Getter
+    @Setter
+    public static class Replica {
+
+        private String url;
+
+        private String username;
+
+        private String password;
+
+        private String driverClassName;
+
+        private int maximumPoolSize = 10;
+
+        private Duration connectionTimeout = Duration.ofSeconds(2);
+    }
+
+    @Getter
+    @Setter
+    public static class Batch {
+
+        private int maximumPoolSize = 2;
+
+        private Duration connectionTimeout = Duration.ofMillis(250);
+    }
+}
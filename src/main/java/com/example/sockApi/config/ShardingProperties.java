@@ -0,0 +1,44 @@
+package com.example.sockApi.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@ConfigurationProperties(prefix = "sock.sharding")
+@Getter
+@Setter
+public class ShardingProperties {
+
+    private int defaultWarehouse = 1;
+
+    private List<Shard> shards = new ArrayList<>();
+
+    private Duration shardTimeout = Duration.ofSeconds(2);
+
+    private int fanOutThreads = 8;
+
+    @Getter
+    @Setter
+    public static class Shard {
+
+        private String name;
+
+        private String url;
+
+        private String username;
+
+        private String password;
+
+        private String driverClassName;
+
+        private int maximumPoolSize = 10;
+
+        private Duration connectionTimeout = Duration.ofSeconds(2);
+
+        private List<Integer> warehouses = new ArrayList<>();
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.sockApi.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "sock.snapshot")
+@Getter
+@Setter
+public class SnapshotProperties {
+
+    private String directory = "snapshots";
+
+    private String fileName = "sock-inventory.snap";
+
+    private boolean warmStart = false;
+
+    private Duration maxAge = Duration.ofMinutes(10);
+}
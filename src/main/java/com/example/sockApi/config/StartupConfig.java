@@ -0,0 +1,34 @@
+package com.example.sockApi.config;
+
+import com.example.sockApi.datasource.ReplicaHealthMonitor;
+import com.example.sockApi.web.RateLimiter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@Slf4j
+public class StartupConfig {
+
+    // beans with @Scheduled methods must be created at startup even when spring.main.lazy-initialization is on
+    @Bean
+    static LazyInitializationExcludeFilter scheduledBeansLazyInitializationExcludeFilter() {
+        return LazyInitializationExcludeFilter.forBeanTypes(ReplicaHealthMonitor.class, RateLimiter.class);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "sock.startup.exit-on-ready", havingValue = "true")
+    ApplicationListener<ApplicationReadyEvent> exitOnReadyListener() {
+        return event -> {
+            log.info("Application ready in {} ms, exiting because sock.startup.exit-on-ready is set",
+                    event.getTimeTaken().toMillis());
+            System.exit(SpringApplication.exit(event.getApplicationContext()));
+        };
+    }
+
+}
@@ -0,0 +1,104 @@
+package com.example.sockApi.controller;
+
+import com.example.sockApi.datasource.ReplicaRoutingDataSource;
+import com.example.sockApi.datasource.ShardRoutingDataSource;
+import com.example.sockApi.dto.BulkheadStatsDto;
+import com.example.sockApi.dto.HotKeyDto;
+import com.example.sockApi.dto.PoolStatsDto;
+import com.example.sockApi.dto.SnapshotInfoDto;
+import com.example.sockApi.exception.BusinessException;
+import com.example.sockApi.exception.TechnicalException;
+import com.example.sockApi.service.HotKeyTracker;
+import com.example.sockApi.service.SnapshotService;
+import com.example.sockApi.web.Bulkhead;
+import com.example.sockApi.web.BulkheadFilter;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/admin")
+@AllArgsConstructor
+@Slf4j
+public class AdminController {
+
+    private final HikariDataSource primaryDataSource;
+
+    private final HikariDataSource batchDataSource;
+
+    private final ReplicaRoutingDataSource routingDataSource;
+
+    private final ShardRoutingDataSource shardRoutingDataSource;
+
+    private final BulkheadFilter bulkheadFilter;
+
+    private final HotKeyTracker hotKeyTracker;
+
+    private final SnapshotService snapshotService;
+
+    @GetMapping("/pools")
+    public ResponseEntity<List<PoolStatsDto>> getPoolStats() {
+        log.info("Request for connection pool statistics");
+        List<PoolStatsDto> pools = new ArrayList<>();
+        pools.add(poolStats(primaryDataSource));
+        pools.add(poolStats(batchDataSource));
+        routingDataSource.getReplicas().forEach(replica -> pools.add(poolStats(replica.getTargetDataSource())));
+        shardRoutingDataSource.getShardNames().stream()
+                .filter(shard -> !ShardRoutingDataSource.HOME.equals(shard))
+                .forEach(shard -> pools.add(poolStats(shardRoutingDataSource.getShardDataSource(shard))));
+        return new ResponseEntity<>(pools, HttpStatus.OK);
+    }
+
+    @GetMapping("/bulkheads")
+    public ResponseEntity<List<BulkheadStatsDto>> getBulkheadStats() {
+        log.info("Request for bulkhead statistics");
+        List<BulkheadStatsDto> bulkheads = bulkheadFilter.getBulkheads().stream()
+                .map(Bulkhead::stats)
+                .toList();
+        return new ResponseEntity<>(bulkheads, HttpStatus.OK);
+    }
+
+    @GetMapping("/hot-keys")
+    public ResponseEntity<List<HotKeyDto>> getHotKeys() {
+        log.info("Request for most written sock keys");
+        List<HotKeyDto> hotKeys = hotKeyTracker.getHotKeys();
+        return new ResponseEntity<>(hotKeys, HttpStatus.OK);
+    }
+
+    @PostMapping("/snapshot")
+    public ResponseEntity<SnapshotInfoDto> writeSnapshot() throws TechnicalException {
+        log.info("Request to write an inventory snapshot");
+        SnapshotInfoDto snapshot = snapshotService.writeSnapshot();
+        return new ResponseEntity<>(snapshot, HttpStatus.CREATED);
+    }
+
+    @PostMapping("/snapshot/restore")
+    public ResponseEntity<SnapshotInfoDto> restoreSnapshot(@RequestParam(required = false) String file)
+            throws BusinessException, TechnicalException {
+        log.info("Request to restore the inventory from snapshot {}", file);
+        SnapshotInfoDto snapshot = snapshotService.restoreSnapshot(file);
+        return new ResponseEntity<>(snapshot, HttpStatus.OK);
+    }
+
+    private static PoolStatsDto poolStats(DataSource dataSource) {
+        HikariDataSource pool = (HikariDataSource) dataSource;
+        HikariPoolMXBean mxBean = pool.getHikariPoolMXBean();
+        if (mxBean == null) {
+            return new PoolStatsDto(pool.getPoolName(), pool.getMaximumPoolSize(), 0, 0, 0, 0);
+        }
+        return new PoolStatsDto(pool.getPoolName(), pool.getMaximumPoolSize(), mxBean.getActiveConnections(),
+                mxBean.getIdleConnections(), mxBean.getTotalConnections(), mxBean.getThreadsAwaitingConnection());
+    }
+}
@@ -1,17 +1,32 @@
 package com.example.sockApi.controller;
 
+import com.example.sockApi.dto.BatchReportDto;
+import com.example.sockApi.dto.LowStockDto;
+import com.example.sockApi.dto.SockCountDto;
 import com.example.sockApi.dto.SockDto;
+import com.example.sockApi.dto.SockFilterExpressionDto;
+import com.example.sockApi.dto.StockTakeReportDto;
 import com.example.sockApi.enums.SortBy;
 import com.example.sockApi.exception.BusinessException;
 import com.example.sockApi.exception.TechnicalException;
+import com.example.sockApi.service.LowStockMonitor;
+import com.example.sockApi.service.ShardedSockService;
+import com.example.sockApi.service.SockBatchService;
+import com.example.sockApi.service.SockChangeFeed;
 import com.example.sockApi.service.SockService;
+import com.example.sockApi.service.StockTakeService;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
 import java.util.List;
 
 @RestController
@@ -22,6 +37,16 @@ public class SockController {
 
     private final SockService sockService;
 
+    private final ShardedSockService shardedSockService;
+
+    private final SockChangeFeed sockChangeFeed;
+
+    private final SockBatchService sockBatchService;
+
+    private final LowStockMonitor lowStockMonitor;
+
+    private final StockTakeService stockTakeService;
+
     @PostMapping("/income")
     public ResponseEntity<SockDto> incomeSocks(@RequestParam String color,
                                                @RequestParam double cottonPercentage,
@@ -63,7 +88,7 @@ public class SockController {
         log.info("Request for socks. Color: {}, exact percentage of cotton: {}," +
                         "minimum percentage of cotton: {}, maximum percentage of cotton: {}, sorting: {}",
                 color, exactCottonPercentage, minCottonPercentage, maxCottonPercentage, sortBy);
-        List<SockDto> socks = sockService.getSocks(color, exactCottonPercentage, minCottonPercentage, maxCottonPercentage, sortBy);
+        List<SockDto> socks = shardedSockService.getSocks(color, exactCottonPercentage, minCottonPercentage, maxCottonPercentage, sortBy);
         return new ResponseEntity<>(socks, HttpStatus.OK);
     }
 
@@ -77,14 +102,67 @@ public class SockController {
         log.info("Request for count of socks. Color: {}, exact percentage of cotton: {}," +
                         "minimum percentage of cotton: {}, maximum percentage of cotton: {}",
                 color, exactCottonPercentage, minCottonPercentage, maxCottonPercentage);
-        Integer count = sockService.getSocksCount(color, exactCottonPercentage, minCottonPercentage, maxCottonPercentage);
+        Integer count = shardedSockService.getSocksCount(color, exactCottonPercentage, minCottonPercentage, maxCottonPercentage);
+        return new ResponseEntity<>(count, HttpStatus.OK);
+    }
+
+    @PostMapping("/search")
+    public ResponseEntity<List<SockDto>> searchSocks(@RequestBody SockFilterExpressionDto expression) throws BusinessException {
+        log.info("Request for socks by filter expression: {}", expression);
+        List<SockDto> socks = shardedSockService.searchSocks(expression);
+        return new ResponseEntity<>(socks, HttpStatus.OK);
+    }
+
+    @PostMapping("/search/count")
+    public ResponseEntity<SockCountDto> countSocks(@RequestBody SockFilterExpressionDto expression) throws BusinessException {
+        log.info("Request for count of socks by filter expression: {}", expression);
+        SockCountDto count = shardedSockService.countSocks(expression);
         return new ResponseEntity<>(count, HttpStatus.OK);
     }
 
+    @GetMapping("/low-stock")
+    public ResponseEntity<List<LowStockDto>> getLowStock() {
+        log.info("Request for positions below their low stock threshold");
+        List<LowStockDto> lowStock = lowStockMonitor.getLowStock();
+        return new ResponseEntity<>(lowStock, HttpStatus.OK);
+    }
+
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+                                    @RequestParam(required = false) Long sinceVersion) {
+        Long lastVersion = lastEventId != null ? lastEventId : sinceVersion;
+        log.info("Request for sock changes since version {}", lastVersion);
+        return sockChangeFeed.subscribe(lastVersion);
+    }
+
     @PostMapping("/batch")
     public ResponseEntity<List<SockDto>> uploadBatch(@RequestParam("file") MultipartFile file) throws BusinessException, TechnicalException {
         log.info("Request for adding socks from file: {}", file.getOriginalFilename());
         List<SockDto> uploadedSocks = sockService.processFileCsv(file);
         return new ResponseEntity<>(uploadedSocks, HttpStatus.CREATED);
     }
-}
\ No newline at end of file
+
+    @PostMapping(value = "/batch", params = "mode=TOLERANT", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<BatchReportDto> uploadBatchTolerant(@RequestParam("file") MultipartFile file) throws TechnicalException {
+        log.info("Request for adding socks from file in tolerant mode: {}", file.getOriginalFilename());
+        BatchReportDto report = sockBatchService.ingestCsv(file);
+        return new ResponseEntity<>(report, HttpStatus.CREATED);
+    }
+
+    @PostMapping(value = "/batch", consumes = "text/csv")
+    public ResponseEntity<BatchReportDto> uploadBatchStream(HttpServletRequest request,
+                                                            @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding,
+                                                            @RequestParam(defaultValue = "request-body") String fileName) throws BusinessException, TechnicalException, IOException {
+        log.info("Request for adding socks from streamed CSV body: {}, content encoding: {}", fileName, contentEncoding);
+        BatchReportDto report = sockBatchService.ingestCsvStream(request.getInputStream(), contentEncoding, fileName);
+        return new ResponseEntity<>(report, HttpStatus.CREATED);
+    }
+
+    @PostMapping(value = "/batch/stock-take", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<StockTakeReportDto> stockTake(@RequestParam("file") MultipartFile file,
+                                                        @RequestParam(defaultValue = "false") boolean dryRun) throws BusinessException, TechnicalException {
+        log.info("Request for stock-take from file: {}, dry run: {}", file.getOriginalFilename(), dryRun);
+        StockTakeReportDto report = stockTakeService.reconcile(file, dryRun);
+        return new ResponseEntity<>(report, dryRun ? HttpStatus.OK : HttpStatus.CREATED);
+    }
+}
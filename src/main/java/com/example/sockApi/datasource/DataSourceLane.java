@@ -0,0 +1,20 @@
+package com.example.sockApi.datasource;
+
+public enum DataSourceLane {
+    INTERACTIVE,
+    BATCH;
+
+    private static final ThreadLocal<DataSourceLane> CURRENT = ThreadLocal.withInitial(() -> INTERACTIVE);
+
+    public static DataSourceLane current() {
+        return CURRENT.get();
+    }
+
+    public static void set(DataSourceLane lane) {
+        CURRENT.set(lane);
+    }
+
+    public static void clear() {
+        CURRENT.remove();
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.sockApi.datasource;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class ReadYourWritesTracker {
+
+    private final long windowNanos;
+
+    private final Map<String, Long> lastWrites = new ConcurrentHashMap<>();
+
+    public ReadYourWritesTracker(Duration window) {
+        this.windowNanos = window.toNanos();
+    }
+
+    public void recordWrite(String clientId) {
+        if (windowNanos > 0) {
+            lastWrites.put(clientId, System.nanoTime());
+        }
+    }
+
+    public boolean isWithinWindow(String clientId) {
+        if (windowNanos <= 0) {
+            return false;
+        }
+        Long lastWrite = lastWrites.get(clientId);
+        return lastWrite != null && System.nanoTime() - lastWrite < windowNanos;
+    }
+
+    public void evictExpired() {
+        long now = System.nanoTime();
+        lastWrites.values().removeIf(lastWrite -> now - lastWrite >= windowNanos);
+    }
+}
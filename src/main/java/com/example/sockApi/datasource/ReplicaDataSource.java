@@ -0,0 +1,63 @@
+package com.example.sockApi.datasource;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+@Slf4j
+public class ReplicaDataSource extends DelegatingDataSource {
+
+    @Getter
+    private final String name;
+
+    private final DataSource fallback;
+
+    private volatile boolean healthy = true;
+
+    public ReplicaDataSource(String name, DataSource replica, DataSource fallback) {
+        super(replica);
+        this.name = name;
+        this.fallback = fallback;
+    }
+
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        try {
+            return super.getConnection();
+        } catch (SQLException e) {
+            markUnhealthy(e);
+            return fallback.getConnection();
+        }
+    }
+
+    public void checkHealth(int timeoutSeconds) {
+        try (Connection connection = obtainTargetDataSource().getConnection()) {
+            if (connection.isValid(timeoutSeconds)) {
+                if (!healthy) {
+                    log.info("Read replica {} is healthy again", name);
+                }
+                healthy = true;
+            } else {
+                markUnhealthy(null);
+            }
+        } catch (SQLException e) {
+            markUnhealthy(e);
+        }
+    }
+
+    private void markUnhealthy(SQLException cause) {
+        if (healthy) {
+            log.warn("Read replica {} is unavailable, falling back to the primary: {}",
+                    name, cause == null ? "connection validation failed" : cause.getMessage());
+        }
+        healthy = false;
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.sockApi.datasource;
+
+import com.example.sockApi.config.RoutingDataSourceProperties;
+import lombok.AllArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@AllArgsConstructor
+public class ReplicaHealthMonitor {
+
+    private final ReplicaRoutingDataSource routingDataSource;
+
+    private final RoutingDataSourceProperties properties;
+
+    @Scheduled(fixedDelayString = "${sock.datasource.health-check-interval:PT5S}")
+    public void checkReplicas() {
+        int timeoutSeconds = (int) Math.max(1, properties.getHealthCheckTimeout().toSeconds());
+        routingDataSource.getReplicas().forEach(replica -> replica.checkHealth(timeoutSeconds));
+        routingDataSource.getReadYourWritesTracker().evictExpired();
+    }
+}
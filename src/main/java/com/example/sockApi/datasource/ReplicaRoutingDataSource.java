@@ -0,0 +1,89 @@
+package com.example.sockApi.datasource;
+
+import com.example.sockApi.web.ClientContext;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    public static final String PRIMARY = "primary";
+
+    public static final String BATCH = "batch";
+
+    private final DataSource primary;
+
+    private final List<ReplicaDataSource> replicas;
+
+    private final ReadYourWritesTracker readYourWritesTracker;
+
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource batch, List<ReplicaDataSource> replicas,
+                                    ReadYourWritesTracker readYourWritesTracker) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.readYourWritesTracker = readYourWritesTracker;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        targets.put(BATCH, batch);
+        this.replicas.forEach(replica -> targets.put(replica.getName(), replica));
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    public List<ReplicaDataSource> getReplicas() {
+        return replicas;
+    }
+
+    public ReadYourWritesTracker getReadYourWritesTracker() {
+        return readYourWritesTracker;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        Optional<String> clientId = ClientContext.currentClientId();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            clientId.ifPresent(readYourWritesTracker::recordWrite);
+            return DataSourceLane.current() == DataSourceLane.BATCH ? BATCH : PRIMARY;
+        }
+        if (clientId.isPresent() && readYourWritesTracker.isWithinWindow(clientId.get())) {
+            return PRIMARY;
+        }
+        return nextHealthyReplica().map(ReplicaDataSource::getName).orElse(PRIMARY);
+    }
+
+    private Optional<ReplicaDataSource> nextHealthyReplica() {
+        int size = replicas.size();
+        for (int attempt = 0; attempt < size; attempt++) {
+            ReplicaDataSource replica = replicas.get(Math.floorMod(nextReplica.getAndIncrement(), size));
+            if (replica.isHealthy()) {
+                return Optional.of(replica);
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(replica -> closeQuietly(replica.getTargetDataSource()));
+    }
+
+    private static void closeQuietly(DataSource dataSource) {
+        if (dataSource instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                // the pool is being discarded during shutdown anyway
+            }
+        }
+    }
+}
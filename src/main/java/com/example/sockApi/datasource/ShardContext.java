@@ -0,0 +1,30 @@
+package com.example.sockApi.datasource;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+public final class ShardContext {
+
+    private static final ThreadLocal<String> SHARD = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    public static Optional<String> current() {
+        return Optional.ofNullable(SHARD.get());
+    }
+
+    public static <T> T callOn(String shard, Supplier<T> action) {
+        String previous = SHARD.get();
+        SHARD.set(shard);
+        try {
+            return action.get();
+        } finally {
+            if (previous != null) {
+                SHARD.set(previous);
+            } else {
+                SHARD.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.sockApi.datasource;
+
+import com.example.sockApi.web.WarehouseContext;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ShardRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    public static final String HOME = "home";
+
+    private final Map<String, DataSource> shards;
+
+    private final Map<Integer, String> shardsByWarehouse;
+
+    public ShardRoutingDataSource(DataSource home, Map<String, DataSource> extraShards,
+                                  Map<Integer, String> shardsByWarehouse) {
+        Map<String, DataSource> shards = new LinkedHashMap<>();
+        shards.put(HOME, home);
+        shards.putAll(extraShards);
+        this.shards = shards;
+        this.shardsByWarehouse = Map.copyOf(shardsByWarehouse);
+
+        setTargetDataSources(new HashMap<>(shards));
+        setDefaultTargetDataSource(home);
+    }
+
+    public List<String> getShardNames() {
+        return List.copyOf(shards.keySet());
+    }
+
+    public DataSource getShardDataSource(String name) {
+        return shards.get(name);
+    }
+
+    public boolean isSharded() {
+        return shards.size() > 1;
+    }
+
+    public String shardFor(int warehouseId) {
+        return shardsByWarehouse.getOrDefault(warehouseId, HOME);
+    }
+
+    public String currentShard() {
+        return ShardContext.current().orElseGet(() -> shardFor(WarehouseContext.currentWarehouseId()));
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return currentShard();
+    }
+
+    @Override
+    public void close() {
+        shards.forEach((name, dataSource) -> {
+            if (!HOME.equals(name) && dataSource instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    // the pool is being discarded during shutdown anyway
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.sockApi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class BatchKeyTotalDto {
+
+    private Long id;
+
+    private String color;
+
+    private Double cottonPercentage;
+
+    private Long received;
+
+    private Integer count;
+}
@@ -0,0 +1,25 @@
+package com.example.sockApi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class BatchReportDto {
+
+    private String source;
+
+    private Long applied;
+
+    private Long rejected;
+
+    private List<BatchRowErrorDto> errors;
+
+    private Boolean errorsTruncated;
+
+    private List<BatchKeyTotalDto> totals;
+}
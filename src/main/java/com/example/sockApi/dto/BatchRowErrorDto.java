@@ -0,0 +1,17 @@
+package com.example.sockApi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class BatchRowErrorDto {
+
+    private Long lineNumber;
+
+    private String line;
+
+    private String reason;
+}
@@ -0,0 +1,21 @@
+package com.example.sockApi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class BulkheadStatsDto {
+
+    private String name;
+
+    private Integer maxConcurrent;
+
+    private Integer active;
+
+    private Long accepted;
+
+    private Long rejected;
+}
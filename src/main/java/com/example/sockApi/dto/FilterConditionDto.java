@@ -0,0 +1,16 @@
+package com.example.sockApi.dto;
+
+import com.example.sockApi.enums.ComparisonOperator;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class FilterConditionDto {
+
+    private ComparisonOperator operator;
+
+    private Double value;
+}
@@ -0,0 +1,23 @@
+package com.example.sockApi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class LowStockDto {
+
+    private Long id;
+
+    private Integer warehouseId;
+
+    private String color;
+
+    private Double cottonPercentage;
+
+    private Integer count;
+
+    private Integer threshold;
+}
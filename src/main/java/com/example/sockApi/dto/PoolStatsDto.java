@@ -0,0 +1,23 @@
+package com.example.sockApi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class PoolStatsDto {
+
+    private String name;
+
+    private Integer maximumPoolSize;
+
+    private Integer active;
+
+    private Integer idle;
+
+    private Integer total;
+
+    private Integer awaitingThreads;
+}
@@ -0,0 +1,29 @@
+package com.example.sockApi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class SnapshotInfoDto {
+
+    private String file;
+
+    private String shard;
+
+    private Integer formatVersion;
+
+    private Instant createdAt;
+
+    private Integer colors;
+
+    private Long records;
+
+    private Long bytes;
+
+    private String crc32;
+}
@@ -0,0 +1,17 @@
+package com.example.sockApi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class SockCountDto {
+
+    private Long total;
+
+    private Map<String, Long> byColor;
+}
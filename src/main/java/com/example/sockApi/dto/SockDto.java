@@ -16,4 +16,10 @@ public class SockDto {
     private Double cottonPercentage;
 
     private Integer count;
+
+    private Integer warehouseId;
+
+    public SockDto(Long id, String color, Double cottonPercentage, Integer count) {
+        this(id, color, cottonPercentage, count, null);
+    }
 }
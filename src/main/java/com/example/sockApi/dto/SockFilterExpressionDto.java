@@ -0,0 +1,18 @@
+package com.example.sockApi.dto;
+
+import com.example.sockApi.enums.SortBy;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class SockFilterExpressionDto {
+
+    private List<SockFilterGroupDto> anyOf;
+
+    private SortBy sortBy;
+}
@@ -0,0 +1,19 @@
+package com.example.sockApi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class SockFilterGroupDto {
+
+    private List<String> colors;
+
+    private List<FilterConditionDto> cottonPercentage;
+
+    private List<FilterConditionDto> count;
+}
@@ -0,0 +1,39 @@
+package com.example.sockApi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@NoArgsConstructor
+@AllArgsConstructor
+@Data
+public class StockTakeReportDto {
+
+    private String source;
+
+    private Boolean dryRun;
+
+    private Long rows;
+
+    private Long unchanged;
+
+    private Long updated;
+
+    private Long added;
+
+    private Long zeroed;
+
+    private Long applied;
+
+    private Long conflicts;
+
+    private Long countBefore;
+
+    private Long countAfter;
+
+    private List<StockTakeDiffDto> differences;
+
+    private Boolean differencesTruncated;
+}
@@ -0,0 +1,27 @@
+package com.example.sockApi.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.*;
+
+@Entity
+@Table(name = "colors")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class Color {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Integer id;
+
+    @Column(name = "name", nullable = false)
+    private String name;
+
+    @Column(name = "normalized_name", nullable = false, unique = true)
+    private String normalizedName;
+}
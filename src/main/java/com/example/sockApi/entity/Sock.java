@@ -19,12 +19,16 @@ public class Sock {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(name = "color", nullable = false)
-    private String color;
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "color_id", nullable = false)
+    private Color color;
 
-    @Column(name = "cotton_percentage", nullable = false)
-    private Double cottonPercentage;
+    @Column(name = "cotton_basis_points", nullable = false)
+    private Integer cottonBasisPoints;
 
     @Column(name = "count", nullable = false)
     private Integer count;
+
+    @Column(name = "warehouse_id", nullable = false)
+    private Integer warehouseId;
 }
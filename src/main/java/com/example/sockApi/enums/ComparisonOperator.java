@@ -0,0 +1,12 @@
+package com.example.sockApi.enums;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public enum ComparisonOperator {
+    @JsonProperty("moreThan")
+    MORE_THAN,
+    @JsonProperty("lessThan")
+    LESS_THAN,
+    @JsonProperty("equal")
+    EQUAL
+}
@@ -0,0 +1,7 @@
+package com.example.sockApi.enums;
+
+public enum EndpointGroup {
+    READ,
+    WRITE,
+    BATCH
+}
@@ -0,0 +1,21 @@
+package com.example.sockApi.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class SockChangedEvent {
+
+    private final Long id;
+
+    private final String color;
+
+    private final Double cottonPercentage;
+
+    private final Integer oldCount;
+
+    private final Integer newCount;
+
+    private final Integer warehouseId;
+}
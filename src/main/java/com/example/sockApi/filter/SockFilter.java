@@ -0,0 +1,35 @@
+package com.example.sockApi.filter;
+
+import com.example.sockApi.utils.ColorNameUtils;
+import com.example.sockApi.utils.CottonPercentageUtils;
+
+import java.math.RoundingMode;
+
+public record SockFilter(String normalizedColor,
+                         Integer exactCottonBasisPoints,
+                         Integer minCottonBasisPoints,
+                         Integer maxCottonBasisPoints) {
+
+    public static SockFilter of(String color, Double exactCottonPercentage,
+                                Double minCottonPercentage, Double maxCottonPercentage) {
+        return new SockFilter(color == null ? null : ColorNameUtils.normalize(color),
+                CottonPercentageUtils.toBasisPoints(validated(exactCottonPercentage)),
+                CottonPercentageUtils.toBasisPoints(validated(minCottonPercentage), RoundingMode.CEILING),
+                CottonPercentageUtils.toBasisPoints(validated(maxCottonPercentage), RoundingMode.FLOOR));
+    }
+
+    private static Double validated(Double cottonPercentage) {
+        if (cottonPercentage != null && !CottonPercentageUtils.isValid(cottonPercentage)) {
+            throw new IllegalArgumentException(String.format(
+                    "Filter error - cotton percentage should be 0-100 (passed value is %f)", cottonPercentage));
+        }
+        return cottonPercentage;
+    }
+
+    public boolean matches(String normalizedColor, int cottonBasisPoints) {
+        return (this.normalizedColor == null || this.normalizedColor.equals(normalizedColor))
+                && (exactCottonBasisPoints == null || exactCottonBasisPoints == cottonBasisPoints)
+                && (minCottonBasisPoints == null || cottonBasisPoints >= minCottonBasisPoints)
+                && (maxCottonBasisPoints == null || cottonBasisPoints <= maxCottonBasisPoints);
+    }
+}
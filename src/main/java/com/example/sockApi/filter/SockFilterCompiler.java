@@ -0,0 +1,115 @@
+package com.example.sockApi.filter;
+
+import com.example.sockApi.dto.FilterConditionDto;
+import com.example.sockApi.dto.SockFilterExpressionDto;
+import com.example.sockApi.dto.SockFilterGroupDto;
+import com.example.sockApi.exception.BusinessException;
+import com.example.sockApi.service.ColorDictionary;
+import com.example.sockApi.utils.CottonPercentageUtils;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+@Service
+@AllArgsConstructor
+@Slf4j
+public class SockFilterCompiler {
+
+    private final ColorDictionary colorDictionary;
+
+    private static BusinessException filterError(String errorMessage) {
+        log.error(errorMessage);
+        return new BusinessException(errorMessage);
+    }
+
+    private static void validate(FilterConditionDto condition, String field) throws BusinessException {
+        if (condition == null || condition.getOperator() == null || condition.getValue() == null) {
+            throw filterError(String.format("Filter error - %s condition needs an operator and a value", field));
+        }
+        if (!Double.isFinite(condition.getValue())) {
+            throw filterError(String.format("Filter error - %s value should be a number (passed value is %s)",
+                    field, condition.getValue()));
+        }
+    }
+
+    public SockFilterExpression compile(SockFilterExpressionDto expression) throws BusinessException {
+        if (expression == null || expression.getAnyOf() == null || expression.getAnyOf().isEmpty()) {
+            return SockFilterExpression.matchAll();
+        }
+
+        List<SockFilterExpression.Group> groups = new ArrayList<>(expression.getAnyOf().size());
+        for (SockFilterGroupDto groupDto : expression.getAnyOf()) {
+            SockFilterExpression.Group group = groupDto == null ? SockFilterExpression.Group.ANY : compileGroup(groupDto);
+            if (group.isSatisfiable()) {
+                groups.add(group);
+            }
+        }
+        return new SockFilterExpression(groups);
+    }
+
+    private SockFilterExpression.Group compileGroup(SockFilterGroupDto groupDto) throws BusinessException {
+        BitSet colorIds = null;
+        if (groupDto.getColors() != null && !groupDto.getColors().isEmpty()) {
+            colorIds = new BitSet();
+            for (String color : groupDto.getColors()) {
+                if (color == null || color.isBlank()) {
+                    throw filterError("Filter error - color should not be empty");
+                }
+                colorDictionary.findId(color).ifPresent(colorIds::set);
+            }
+        }
+
+        int minCottonBasisPoints = 0;
+        int maxCottonBasisPoints = CottonPercentageUtils.MAX_BASIS_POINTS;
+        if (groupDto.getCottonPercentage() != null) {
+            for (FilterConditionDto condition : groupDto.getCottonPercentage()) {
+                validate(condition, "cotton percentage");
+                if (!CottonPercentageUtils.isValid(condition.getValue())) {
+                    throw filterError(String.format("Filter error - cotton percentage should be 0-100 (passed value is %f)",
+                            condition.getValue()));
+                }
+                double value = condition.getValue();
+                switch (condition.getOperator()) {
+                    case MORE_THAN -> minCottonBasisPoints = Math.max(minCottonBasisPoints,
+                            CottonPercentageUtils.toBasisPoints(value, RoundingMode.FLOOR) + 1);
+                    case LESS_THAN -> maxCottonBasisPoints = Math.min(maxCottonBasisPoints,
+                            CottonPercentageUtils.toBasisPoints(value, RoundingMode.CEILING) - 1);
+                    case EQUAL -> {
+                        int basisPoints = CottonPercentageUtils.toBasisPoints(value);
+                        minCottonBasisPoints = Math.max(minCottonBasisPoints, basisPoints);
+                        maxCottonBasisPoints = Math.min(maxCottonBasisPoints, basisPoints);
+                    }
+                }
+            }
+        }
+
+        long minCount = 0;
+        long maxCount = Integer.MAX_VALUE;
+        if (groupDto.getCount() != null) {
+            for (FilterConditionDto condition : groupDto.getCount()) {
+                validate(condition, "count");
+                double value = Math.max(-1, Math.min(condition.getValue(), Integer.MAX_VALUE));
+                switch (condition.getOperator()) {
+                    case MORE_THAN -> minCount = Math.max(minCount, (long) Math.floor(value) + 1);
+                    case LESS_THAN -> maxCount = Math.min(maxCount, (long) Math.ceil(value) - 1);
+                    case EQUAL -> {
+                        minCount = Math.max(minCount, (long) Math.ceil(value));
+                        maxCount = Math.min(maxCount, (long) Math.floor(value));
+                    }
+                }
+            }
+        }
+        if (minCount > maxCount) {
+            minCount = 1;
+            maxCount = 0;
+        }
+
+        return new SockFilterExpression.Group(colorIds, minCottonBasisPoints, maxCottonBasisPoints,
+                (int) minCount, (int) maxCount);
+    }
+}
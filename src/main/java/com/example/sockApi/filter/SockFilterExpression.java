@@ -0,0 +1,101 @@
+package com.example.sockApi.filter;
+
+import com.example.sockApi.entity.Sock;
+import com.example.sockApi.repository.specifications.SockSpecifications;
+import com.example.sockApi.utils.CottonPercentageUtils;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.Predicate;
+
+public final class SockFilterExpression {
+
+    private final List<Group> groups;
+
+    SockFilterExpression(List<Group> groups) {
+        this.groups = List.copyOf(groups);
+    }
+
+    public static SockFilterExpression matchAll() {
+        return new SockFilterExpression(List.of(Group.ANY));
+    }
+
+    public boolean matches(int colorId, int cottonBasisPoints, int count) {
+        for (Group group : groups) {
+            if (group.matches(colorId, cottonBasisPoints, count)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public Predicate<Sock> asPredicate() {
+        return sock -> matches(sock.getColor().getId(), sock.getCottonBasisPoints(), sock.getCount());
+    }
+
+    public Specification<Sock> toSpecification() {
+        if (groups.isEmpty()) {
+            return (root, query, criteriaBuilder) -> criteriaBuilder.disjunction();
+        }
+        if (groups.stream().anyMatch(Group::isUnrestricted)) {
+            return Specification.where(null);
+        }
+        Specification<Sock> result = Specification.where(groups.get(0).toSpecification());
+        for (int i = 1; i < groups.size(); i++) {
+            result = result.or(groups.get(i).toSpecification());
+        }
+        return result;
+    }
+
+    static final class Group {
+
+        static final Group ANY = new Group(null, 0, CottonPercentageUtils.MAX_BASIS_POINTS, 0, Integer.MAX_VALUE);
+
+        private final BitSet colorIds;
+
+        private final int minCottonBasisPoints;
+
+        private final int maxCottonBasisPoints;
+
+        private final int minCount;
+
+        private final int maxCount;
+
+        Group(BitSet colorIds, int minCottonBasisPoints, int maxCottonBasisPoints, int minCount, int maxCount) {
+            this.colorIds = colorIds;
+            this.minCottonBasisPoints = minCottonBasisPoints;
+            this.maxCottonBasisPoints = maxCottonBasisPoints;
+            this.minCount = minCount;
+            this.maxCount = maxCount;
+        }
+
+        boolean isSatisfiable() {
+            return (colorIds == null || !colorIds.isEmpty())
+                    && minCottonBasisPoints <= maxCottonBasisPoints
+                    && minCount <= maxCount;
+        }
+
+        boolean isUnrestricted() {
+            return colorIds == null
+                    && minCottonBasisPoints <= 0 && maxCottonBasisPoints >= CottonPercentageUtils.MAX_BASIS_POINTS
+                    && minCount <= 0 && maxCount == Integer.MAX_VALUE;
+        }
+
+        boolean matches(int colorId, int cottonBasisPoints, int count) {
+            return (colorIds == null || colorIds.get(colorId))
+                    && cottonBasisPoints >= minCottonBasisPoints && cottonBasisPoints <= maxCottonBasisPoints
+                    && count >= minCount && count <= maxCount;
+        }
+
+        Specification<Sock> toSpecification() {
+            return Specification.where(SockSpecifications.colorIdIn(colorIds == null ? null : colorIds.stream().boxed().toList()))
+                    .and(SockSpecifications.cottonBasisPointsBetween(
+                            minCottonBasisPoints > 0 ? minCottonBasisPoints : null,
+                            maxCottonBasisPoints < CottonPercentageUtils.MAX_BASIS_POINTS ? maxCottonBasisPoints : null))
+                    .and(SockSpecifications.countBetween(
+                            minCount > 0 ? minCount : null,
+                            maxCount < Integer.MAX_VALUE ? maxCount : null));
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.sockApi.repository;
+
+import com.example.sockApi.entity.Color;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface ColorRepository extends JpaRepository<Color, Integer> {
+
+    Optional<Color> findByNormalizedName(String normalizedName);
+
+    @Modifying
+    @Query(value = "INSERT INTO colors (name, normalized_name) VALUES (:name, :normalizedName) ON CONFLICT DO NOTHING",
+            nativeQuery = true)
+    void insertIfAbsent(@Param("name") String name, @Param("normalizedName") String normalizedName);
+
+    @Modifying
+    @Query(value = "INSERT INTO colors (id, name, normalized_name) VALUES (:id, :name, :normalizedName) ON CONFLICT DO NOTHING",
+            nativeQuery = true)
+    void insertWithIdIfAbsent(@Param("id") Integer id, @Param("name") String name,
+                              @Param("normalizedName") String normalizedName);
+
+}
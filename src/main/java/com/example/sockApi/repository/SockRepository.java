@@ -3,11 +3,53 @@ package com.example.sockApi.repository;
 import com.example.sockApi.entity.Sock;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import javax.persistence.QueryHint;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface SockRepository extends JpaRepository<Sock, Long>, JpaSpecificationExecutor<Sock> {
 
-    Optional<Sock> findByColorAndCottonPercentage(String color, double cottonPercentage);
+    Optional<Sock> findByWarehouseIdAndColorIdAndCottonBasisPoints(Integer warehouseId, Integer colorId, int cottonBasisPoints);
+
+    // names are sorted by the caller: a database collation may order them differently from String.compareTo
+    @Query(value = "SELECT DISTINCT c.normalized_name FROM socks s JOIN colors c ON c.id = s.color_id "
+            + "WHERE s.warehouse_id = :warehouseId",
+            nativeQuery = true)
+    List<String> findColorsInWarehouse(@Param("warehouseId") Integer warehouseId);
+
+    // a page of one color starts after the last cotton of the previous one
+    @Query(value = "SELECT s.id AS id, c.name AS name, c.normalized_name AS normalized, "
+            + "s.cotton_basis_points AS cotton, s.count AS count "
+            + "FROM socks s JOIN colors c ON c.id = s.color_id WHERE s.warehouse_id = :warehouseId "
+            + "AND c.normalized_name = :normalizedName AND s.cotton_basis_points > :afterCotton "
+            + "ORDER BY s.cotton_basis_points LIMIT :limit",
+            nativeQuery = true)
+    List<StockTakeRow> findPageOfColor(@Param("warehouseId") Integer warehouseId,
+                                       @Param("normalizedName") String normalizedName,
+                                       @Param("afterCotton") int afterCotton, @Param("limit") int limit);
+
+    @Modifying
+    @Query(value = "INSERT INTO socks (warehouse_id, color_id, cotton_basis_points, count) "
+            + "VALUES (:warehouseId, :colorId, :cottonBasisPoints, 0) ON CONFLICT DO NOTHING",
+            nativeQuery = true)
+    void insertIfAbsent(@Param("warehouseId") Integer warehouseId, @Param("colorId") Integer colorId,
+                        @Param("cottonBasisPoints") int cottonBasisPoints);
+
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(value = "SELECT s.id AS id, s.warehouse_id AS warehouse, s.color_id AS color, "
+            + "s.cotton_basis_points AS cotton, s.count AS count FROM socks s ORDER BY s.id",
+            nativeQuery = true)
+    Stream<SockRow> streamAll();
+
+    @Modifying
+    @Query("UPDATE Sock s SET s.count = :countedCount WHERE s.id = :id AND s.count = :expectedCount")
+    int updateCountIfUnchanged(@Param("id") Long id, @Param("expectedCount") int expectedCount,
+                               @Param("countedCount") int countedCount);
 
 }
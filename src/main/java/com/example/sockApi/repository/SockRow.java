@@ -0,0 +1,14 @@
+package com.example.sockApi.repository;
+
+public interface SockRow {
+
+    Long getId();
+
+    Integer getWarehouse();
+
+    Integer getColor();
+
+    Integer getCotton();
+
+    Integer getCount();
+}
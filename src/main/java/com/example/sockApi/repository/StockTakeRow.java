@@ -0,0 +1,14 @@
+package com.example.sockApi.repository;
+
+public interface StockTakeRow {
+
+    Long getId();
+
+    String getName();
+
+    String getNormalized();
+
+    Integer getCotton();
+
+    Integer getCount();
+}
@@ -3,30 +3,51 @@ package com.example.sockApi.repository.specifications;
 import com.example.sockApi.entity.Sock;
 import org.springframework.data.jpa.domain.Specification;
 
+import java.util.Collection;
+
 public class SockSpecifications {
 
-    public static Specification<Sock> colorEquals(String color) {
+    public static Specification<Sock> colorIdEquals(Integer colorId) {
+        return (root, query, criteriaBuilder) ->
+                colorId == null ? null : criteriaBuilder.equal(root.get("color").get("id"), colorId);
+    }
+
+    public static Specification<Sock> colorIdIn(Collection<Integer> colorIds) {
         return (root, query, criteriaBuilder) ->
-                color == null ? null : criteriaBuilder.equal(root.get("color"), color);
+                colorIds == null ? null : root.get("color").get("id").in(colorIds);
     }
 
-    public static Specification<Sock> cottonPercentageEquals(Double exactCottonPercentage) {
+    public static Specification<Sock> cottonBasisPointsEquals(Integer exactCottonBasisPoints) {
         return (root, query, criteriaBuilder) ->
-                exactCottonPercentage == null ? null : criteriaBuilder.equal(root.get("cottonPercentage"), exactCottonPercentage);
+                exactCottonBasisPoints == null ? null : criteriaBuilder.equal(root.get("cottonBasisPoints"), exactCottonBasisPoints);
+    }
+
+    public static Specification<Sock> cottonBasisPointsBetween(Integer minCottonBasisPoints, Integer maxCottonBasisPoints) {
+        return (root, query, criteriaBuilder) -> {
+            if (minCottonBasisPoints == null && maxCottonBasisPoints == null) {
+                return null;
+            } else if (minCottonBasisPoints != null && maxCottonBasisPoints != null) {
+                return criteriaBuilder.between(root.get("cottonBasisPoints"), minCottonBasisPoints, maxCottonBasisPoints);
+            } else if (minCottonBasisPoints != null) {
+                return criteriaBuilder.greaterThanOrEqualTo(root.get("cottonBasisPoints"), minCottonBasisPoints);
+            } else {
+                return criteriaBuilder.lessThanOrEqualTo(root.get("cottonBasisPoints"), maxCottonBasisPoints);
+            }
+        };
     }
 
-    public static Specification<Sock> cottonPercentageBetween(Double minCottonPercentage, Double maxCottonPercentage) {
+    public static Specification<Sock> countBetween(Integer minCount, Integer maxCount) {
         return (root, query, criteriaBuilder) -> {
-            if (minCottonPercentage == null && maxCottonPercentage == null) {
+            if (minCount == null && maxCount == null) {
                 return null;
-            } else if (minCottonPercentage != null && maxCottonPercentage != null) {
-                return criteriaBuilder.between(root.get("cottonPercentage"), minCottonPercentage, maxCottonPercentage);
-            } else if (minCottonPercentage != null) {
-                return criteriaBuilder.greaterThanOrEqualTo(root.get("cottonPercentage"), minCottonPercentage);
+            } else if (minCount != null && maxCount != null) {
+                return criteriaBuilder.between(root.get("count"), minCount, maxCount);
+            } else if (minCount != null) {
+                return criteriaBuilder.greaterThanOrEqualTo(root.get("count"), minCount);
             } else {
-                return criteriaBuilder.lessThanOrEqualTo(root.get("cottonPercentage"), maxCottonPercentage);
+                return criteriaBuilder.lessThanOrEqualTo(root.get("count"), maxCount);
             }
         };
     }
 
-}
\ No newline at end of file
+}
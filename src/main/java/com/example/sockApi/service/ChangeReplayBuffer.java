@@ -0,0 +1,36 @@
+package com.example.sockApi.service;
+
+import com.example.sockApi.dto.SockChangeDto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class ChangeReplayBuffer {
+
+    private final SockChangeDto[] changes;
+
+    private long size;
+
+    ChangeReplayBuffer(int capacity) {
+        this.changes = new SockChangeDto[capacity];
+    }
+
+    void add(SockChangeDto change) {
+        changes[(int) (size++ % changes.length)] = change;
+    }
+
+    long oldestVersion() {
+        return size == 0 ? Long.MAX_VALUE : changes[(int) (Math.max(0, size - changes.length) % changes.length)].getVersion();
+    }
+
+    List<SockChangeDto> since(long version) {
+        List<SockChangeDto> result = new ArrayList<>();
+        for (long i = Math.max(0, size - changes.length); i < size; i++) {
+            SockChangeDto change = changes[(int) (i % changes.length)];
+            if (change.getVersion() > version) {
+                result.add(change);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,265 @@
+package com.example.sockApi.service;
+
+import com.example.sockApi.datasource.ShardContext;
+import com.example.sockApi.datasource.ShardRoutingDataSource;
+import com.example.sockApi.entity.Color;
+import com.example.sockApi.repository.ColorRepository;
+import com.example.sockApi.utils.ColorNameUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+@Slf4j
+public class ColorDictionary {
+
+    private static final Comparator<Color> COLLATION = Comparator.comparing(Color::getNormalizedName)
+            .thenComparing(Color::getName);
+
+    private final ColorRepository colorRepository;
+
+    private final ShardRoutingDataSource shardRoutingDataSource;
+
+    private final TransactionTemplate homeShardTransaction;
+
+    private final Map<Integer, Color> colorsById = new HashMap<>();
+
+    private final Set<String> replicatedColors = ConcurrentHashMap.newKeySet();
+
+    private volatile Snapshot snapshot = new Snapshot(Map.of(), new String[0], new int[0]);
+
+    private volatile boolean loaded;
+
+    public ColorDictionary(ColorRepository colorRepository, ShardRoutingDataSource shardRoutingDataSource,
+                           PlatformTransactionManager transactionManager) {
+        this.colorRepository = colorRepository;
+        this.shardRoutingDataSource = shardRoutingDataSource;
+        this.homeShardTransaction = new TransactionTemplate(transactionManager);
+        this.homeShardTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public Optional<Integer> findId(String color) {
+        String normalizedName = ColorNameUtils.normalize(color);
+        Integer id = currentSnapshot().idsByName().get(normalizedName);
+        if (id != null) {
+            return Optional.of(id);
+        }
+        Optional<Color> pending = pendingColors(false).map(colors -> colors.byName.get(normalizedName));
+        if (pending.isPresent()) {
+            return pending.map(Color::getId);
+        }
+        return colorRepository.findByNormalizedName(normalizedName).map(this::remember);
+    }
+
+    public Integer resolveId(String color) {
+        String shard = shardRoutingDataSource.currentShard();
+        if (ShardRoutingDataSource.HOME.equals(shard)) {
+            return resolveOnCurrentShard(color);
+        }
+
+        // ids are handed out by the home shard only, other shards keep a copy of the colors they reference
+        Color resolved = findCached(color).orElseGet(() -> ShardContext.callOn(ShardRoutingDataSource.HOME,
+                () -> homeShardTransaction.execute(status -> colorRepository.findById(resolveOnCurrentShard(color))
+                        .map(created -> new Color(created.getId(), created.getName(), created.getNormalizedName()))
+                        .orElseThrow(() -> new IllegalStateException("Color " + color + " was not stored")))));
+        String replicaKey = shard + ":" + resolved.getId();
+        if (!replicatedColors.contains(replicaKey)) {
+            colorRepository.insertWithIdIfAbsent(resolved.getId(), resolved.getName(), resolved.getNormalizedName());
+            afterCommit(() -> replicatedColors.add(replicaKey));
+        }
+        return resolved.getId();
+    }
+
+    private Integer resolveOnCurrentShard(String color) {
+        Optional<Integer> existingId = findId(color);
+        if (existingId.isPresent()) {
+            return existingId.get();
+        }
+        String normalizedName = ColorNameUtils.normalize(color);
+        colorRepository.insertIfAbsent(color.trim(), normalizedName);
+        Color created = colorRepository.findByNormalizedName(normalizedName)
+                .orElseThrow(() -> new IllegalStateException("Color " + color + " was not stored"));
+        log.info("New color registered in the dictionary: {} (id {})", created.getName(), created.getId());
+        return remember(created);
+    }
+
+    private Optional<Color> findCached(String color) {
+        String normalizedName = ColorNameUtils.normalize(color);
+        Snapshot current = currentSnapshot();
+        Integer id = current.idsByName().get(normalizedName);
+        if (id == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new Color(id, current.namesById()[id], normalizedName));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    public Color getReference(Integer id) {
+        return colorRepository.getReferenceById(id);
+    }
+
+    public String nameOf(Integer id) {
+        String[] names = currentSnapshot().namesById();
+        if (id < names.length && names[id] != null) {
+            return names[id];
+        }
+        return findUncached(id).getName();
+    }
+
+    // committed colors get even ranks, a color only this transaction knows sorts between its neighbours
+    public int rankOf(Integer id) {
+        int[] ranks = currentSnapshot().ranksById();
+        if (id < ranks.length && ranks[id] >= 0) {
+            return 2 * ranks[id];
+        }
+        Color color = findUncached(id);
+        Snapshot current = currentSnapshot();
+        if (id < current.ranksById().length && current.ranksById()[id] >= 0) {
+            return 2 * current.ranksById()[id];
+        }
+        long sortedBefore = current.idsByName().entrySet().stream()
+                .filter(entry -> COLLATION.compare(new Color(entry.getValue(), current.namesById()[entry.getValue()],
+                        entry.getKey()), color) < 0)
+                .count();
+        return (int) (2 * sortedBefore - 1);
+    }
+
+    private Color findUncached(Integer id) {
+        Optional<Color> pending = pendingColors(false).map(colors -> colors.byId.get(id));
+        if (pending.isPresent()) {
+            return pending.get();
+        }
+        Color color = colorRepository.findById(id)
+                .orElseThrow(() -> new IllegalStateException("Unknown color id " + id));
+        remember(color);
+        return color;
+    }
+
+    // a row read inside a transaction may be its own uncommitted insert, so it is shared only after the commit
+    private Integer remember(Color color) {
+        Optional<PendingColors> pending = pendingColors(true);
+        if (pending.isPresent()) {
+            pending.get().add(new Color(color.getId(), color.getName(), color.getNormalizedName()));
+        } else {
+            register(color);
+        }
+        return color.getId();
+    }
+
+    private Optional<PendingColors> pendingColors(boolean create) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return Optional.empty();
+        }
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof PendingColors pending && pending.dictionary == this) {
+                return Optional.of(pending);
+            }
+        }
+        if (!create) {
+            return Optional.empty();
+        }
+        PendingColors pending = new PendingColors(this);
+        TransactionSynchronizationManager.registerSynchronization(pending);
+        return Optional.of(pending);
+    }
+
+    public synchronized void preload(Collection<Color> colors) {
+        colors.forEach(color -> colorsById.putIfAbsent(color.getId(),
+                new Color(color.getId(), color.getName(), color.getNormalizedName())));
+        snapshot = Snapshot.of(colorsById);
+        loaded = true;
+        log.info("Color dictionary preloaded: {} colors", colorsById.size());
+    }
+
+    private Snapshot currentSnapshot() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    List<Color> colors = colorRepository.findAll();
+                    colors.forEach(color -> colorsById.put(color.getId(), color));
+                    snapshot = Snapshot.of(colorsById);
+                    loaded = true;
+                    log.info("Color dictionary loaded: {} colors", colors.size());
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    private synchronized Integer register(Color color) {
+        if (!colorsById.containsKey(color.getId())) {
+            colorsById.put(color.getId(), new Color(color.getId(), color.getName(), color.getNormalizedName()));
+            snapshot = Snapshot.of(colorsById);
+        }
+        return color.getId();
+    }
+
+    private static final class PendingColors implements TransactionSynchronization {
+
+        private final ColorDictionary dictionary;
+
+        private final Map<String, Color> byName = new HashMap<>();
+
+        private final Map<Integer, Color> byId = new HashMap<>();
+
+        private PendingColors(ColorDictionary dictionary) {
+            this.dictionary = dictionary;
+        }
+
+        private void add(Color color) {
+            byName.put(color.getNormalizedName(), color);
+            byId.put(color.getId(), color);
+        }
+
+        @Override
+        public void afterCommit() {
+            byId.values().forEach(dictionary::register);
+        }
+    }
+
+    private record Snapshot(Map<String, Integer> idsByName, String[] namesById, int[] ranksById) {
+
+        private static Snapshot of(Map<Integer, Color> colorsById) {
+            int maxId = colorsById.keySet().stream().mapToInt(Integer::intValue).max().orElse(-1);
+            Map<String, Integer> idsByName = new HashMap<>();
+            String[] namesById = new String[maxId + 1];
+            int[] ranksById = new int[maxId + 1];
+            Arrays.fill(ranksById, -1);
+
+            List<Color> sorted = colorsById.values().stream().sorted(COLLATION).toList();
+            for (int rank = 0; rank < sorted.size(); rank++) {
+                Color color = sorted.get(rank);
+                idsByName.put(color.getNormalizedName(), color.getId());
+                namesById[color.getId()] = color.getName();
+                ranksById[color.getId()] = rank;
+            }
+            return new Snapshot(Map.copyOf(idsByName), namesById, ranksById);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.sockApi.service;
+
+import com.example.sockApi.config.HotKeyProperties;
+import com.example.sockApi.dto.HotKeyDto;
+import com.example.sockApi.utils.ColorNameUtils;
+import com.example.sockApi.utils.CottonPercentageUtils;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@Service
+@ManagedResource(objectName = "com.example.sockApi:type=HotKeys", description = "Most written sock keys in the sliding window")
+public class HotKeyTracker {
+
+    private final HotKeyProperties properties;
+
+    private final WindowedCountMinSketch sketch;
+
+    // keys admitted to the top, up to twice top-k of them before the coldest are dropped
+    private final Set<HotKey> candidates = ConcurrentHashMap.newKeySet();
+
+    private volatile long admissionThreshold;
+
+    public HotKeyTracker(HotKeyProperties properties) {
+        this.properties = properties;
+        this.sketch = new WindowedCountMinSketch(properties.getSketchDepth(), properties.getSketchWidth(),
+                properties.getWindowBuckets(), properties.getWindow().toNanos());
+    }
+
+    public void recordWrite(String color, double cottonPercentage) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        HotKey key = new HotKey(ColorNameUtils.normalize(color), CottonPercentageUtils.toBasisPoints(cottonPercentage));
+        // a rolled back write did not happen, so it is only counted once its transaction has committed
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            transactionWrites().keys.add(key);
+        } else {
+            count(key, System.nanoTime());
+        }
+    }
+
+    public List<HotKeyDto> getHotKeys() {
+        long now = System.nanoTime();
+        List<HotKeyDto> hotKeys = new ArrayList<>();
+        for (Candidate candidate : top(now)) {
+            HotKey key = candidate.key();
+            long writes = candidate.estimate();
+            long waitMillis = TimeUnit.NANOSECONDS.toMillis(sketch.estimateWaitNanos(key, now));
+            hotKeys.add(new HotKeyDto(key.normalizedColor(), CottonPercentageUtils.toPercentage(key.cottonBasisPoints()),
+                    writes, waitMillis, (double) waitMillis / writes));
+        }
+        hotKeys.sort(Comparator.comparing(HotKeyDto::getWrites).reversed());
+        return hotKeys;
+    }
+
+    @ManagedAttribute(description = "Top keys as color:cottonPercentage writes=N lockWaitMs=N")
+    public String[] getTopKeys() {
+        return getHotKeys().stream()
+                .map(hotKey -> String.format("%s:%s writes=%d lockWaitMs=%d", hotKey.getColor(),
+                        hotKey.getCottonPercentage(), hotKey.getWrites(), hotKey.getTotalLockWaitMillis()))
+                .toArray(String[]::new);
+    }
+
+    @ManagedAttribute(description = "Length of the sliding window in seconds")
+    public long getWindowSeconds() {
+        return properties.getWindow().toSeconds();
+    }
+
+    private TransactionWrites transactionWrites() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof TransactionWrites writes && writes.belongsTo(this)) {
+                return writes;
+            }
+        }
+        TransactionWrites writes = new TransactionWrites();
+        TransactionSynchronizationManager.registerSynchronization(writes);
+        return writes;
+    }
+
+    private void count(HotKey key, long now) {
+        // a bucket has expired: old estimates would keep keys that cooled down in the top forever
+        if (sketch.increment(key, now)) {
+            trim(now);
+        }
+        // a key already in the top costs a set lookup, the lock is only taken once the set has doubled
+        long estimate = sketch.estimateCount(key, now);
+        if (estimate > admissionThreshold) {
+            offer(key);
+        }
+    }
+
+    private void offer(HotKey key) {
+        if (candidates.add(key) && candidates.size() > 2 * properties.getTopK()) {
+            trim(System.nanoTime());
+        }
+    }
+
+    private synchronized void trim(long now) {
+        List<Candidate> top = top(now);
+        candidates.retainAll(top.stream().map(Candidate::key).collect(Collectors.toSet()));
+        admissionThreshold = top.size() < properties.getTopK() ? 0 : top.get(0).estimate();
+    }
+
+    // the heap is rebuilt from fresh estimates, coldest key first
+    private List<Candidate> top(long now) {
+        PriorityQueue<Candidate> heap = new PriorityQueue<>(Comparator.comparingLong(Candidate::estimate));
+        for (HotKey key : candidates) {
+            long estimate = sketch.estimateCount(key, now);
+            if (estimate > 0) {
+                heap.add(new Candidate(key, estimate));
+                if (heap.size() > properties.getTopK()) {
+                    heap.poll();
+                }
+            }
+        }
+        List<Candidate> top = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            top.add(heap.poll());
+        }
+        return top;
+    }
+
+    private record HotKey(String normalizedColor, int cottonBasisPoints) {
+    }
+
+    // the row lock is taken by the UPDATE flushed at commit, so flush + commit time is the lock wait
+    private final class TransactionWrites implements TransactionSynchronization {
+
+        private final List<HotKey> keys = new ArrayList<>();
+
+        private long commitStartedNanos;
+
+        private boolean belongsTo(HotKeyTracker tracker) {
+            return HotKeyTracker.this == tracker;
+        }
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            commitStartedNanos = System.nanoTime();
+        }
+
+        @Override
+        public void afterCommit() {
+            long committedNanos = System.nanoTime();
+            keys.forEach(key -> count(key, committedNanos));
+            // with several keys in one commit (a batch chunk) the wait cannot be told apart per key
+            if (commitStartedNanos != 0 && keys.stream().distinct().count() == 1) {
+                sketch.addWait(keys.get(0), committedNanos - commitStartedNanos, committedNanos);
+            }
+        }
+    }
+
+    private record Candidate(HotKey key, long estimate) {
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.sockApi.service;
+
+import com.example.sockApi.config.LowStockProperties;
+import com.example.sockApi.dto.LowStockDto;
+import com.example.sockApi.dto.SockDto;
+import com.example.sockApi.event.SockChangedEvent;
+import com.example.sockApi.utils.ColorNameUtils;
+import com.example.sockApi.utils.CottonPercentageUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+
+@Service
+@Slf4j
+public class LowStockMonitor {
+
+    private static final String KEY_SEPARATOR = ":";
+
+    private static final Comparator<StockKey> ORDER = Comparator.comparing(StockKey::warehouseId,
+                    Comparator.nullsFirst(Comparator.<Integer>naturalOrder()))
+            .thenComparing(StockKey::normalizedColor)
+            .thenComparingInt(StockKey::cottonBasisPoints);
+
+    private final ShardedSockService shardedSockService;
+
+    private final int defaultThreshold;
+
+    private final Map<String, Integer> colorThresholds = new HashMap<>();
+
+    private final Map<StockKey, Integer> keyThresholds = new HashMap<>();
+
+    private final ConcurrentSkipListMap<StockKey, LowStockDto> lowStock = new ConcurrentSkipListMap<>(ORDER);
+
+    private final Map<SockId, StockKey> lowKeysBySock = new HashMap<>();
+
+    private volatile boolean seeded;
+
+    // changes committed while the full read runs, replayed over its result so the read never undoes them
+    private List<SockChangedEvent> changesDuringLoad;
+
+    public LowStockMonitor(ShardedSockService shardedSockService, LowStockProperties properties) {
+        this.shardedSockService = shardedSockService;
+        this.defaultThreshold = properties.getDefaultThreshold();
+        properties.getColors().forEach((color, threshold) -> colorThresholds.put(ColorNameUtils.normalize(color), threshold));
+        properties.getKeys().forEach((key, threshold) -> keyThresholds.put(parseKey(key), threshold));
+    }
+
+    public boolean isEnabled() {
+        return defaultThreshold > 0 || !colorThresholds.isEmpty() || !keyThresholds.isEmpty();
+    }
+
+    public List<LowStockDto> getLowStock() {
+        return List.copyOf(lowStock.values());
+    }
+
+    // the only full read: afterwards the set is kept up to date from the change events alone
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadInitialState() {
+        if (!isEnabled() || seeded) {
+            return;
+        }
+        synchronized (this) {
+            changesDuringLoad = new ArrayList<>();
+        }
+        try {
+            List<SockDto> socks = shardedSockService.getSocks(null, null, null, null, null);
+            reload(socks.stream());
+            log.info("Low stock tracking started: {} of {} positions are below their threshold", lowStock.size(), socks.size());
+        } catch (DataAccessException e) {
+            log.warn("Low stock tracking started without initial state - {}", e.getMessage());
+        } finally {
+            synchronized (this) {
+                changesDuringLoad = null;
+            }
+        }
+    }
+
+    public void reload(Stream<SockDto> socks) {
+        if (!isEnabled()) {
+            return;
+        }
+        synchronized (this) {
+            lowStock.clear();
+            lowKeysBySock.clear();
+            socks.forEach(sock -> evaluate(sock.getId(), sock.getWarehouseId(), sock.getColor(),
+                    sock.getCottonPercentage(), sock.getCount()));
+            if (changesDuringLoad != null) {
+                changesDuringLoad.forEach(this::evaluate);
+                changesDuringLoad = null;
+            }
+            seeded = true;
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSockChanged(SockChangedEvent event) {
+        if (!isEnabled()) {
+            return;
+        }
+        synchronized (this) {
+            if (changesDuringLoad != null) {
+                changesDuringLoad.add(event);
+            }
+            evaluate(event);
+        }
+    }
+
+    private void evaluate(SockChangedEvent event) {
+        evaluate(event.getId(), event.getWarehouseId(), event.getColor(), event.getCottonPercentage(), event.getNewCount());
+    }
+
+    private void evaluate(Long id, Integer warehouseId, String color, Double cottonPercentage, int count) {
+        StockKey key = new StockKey(warehouseId, ColorNameUtils.normalize(color),
+                CottonPercentageUtils.toBasisPoints(cottonPercentage));
+        SockId sockId = new SockId(warehouseId, id);
+
+        // an update moved the position to another color or cotton percentage, the old key no longer exists
+        StockKey previousKey = lowKeysBySock.get(sockId);
+        if (previousKey != null && !previousKey.equals(key)) {
+            lowStock.remove(previousKey);
+            lowKeysBySock.remove(sockId);
+        }
+
+        int threshold = thresholdFor(key);
+        if (count < threshold) {
+            LowStockDto previous = lowStock.put(key, new LowStockDto(id, warehouseId, color, cottonPercentage, count, threshold));
+            lowKeysBySock.put(sockId, key);
+            if (previous == null) {
+                log.warn("Low stock: {} with {}% cotton in warehouse {} - {} left, threshold {}",
+                        color, cottonPercentage, warehouseId, count, threshold);
+            }
+        } else if (lowStock.remove(key) != null) {
+            lowKeysBySock.remove(sockId);
+            log.info("Stock restored: {} with {}% cotton in warehouse {} - {} in stock", color, cottonPercentage, warehouseId, count);
+        }
+    }
+
+    private int thresholdFor(StockKey key) {
+        Integer threshold = keyThresholds.get(new StockKey(null, key.normalizedColor(), key.cottonBasisPoints()));
+        if (threshold != null) {
+            return threshold;
+        }
+        return colorThresholds.getOrDefault(key.normalizedColor(), defaultThreshold);
+    }
+
+    private static StockKey parseKey(String key) {
+        int separator = key.lastIndexOf(KEY_SEPARATOR);
+        if (separator <= 0) {
+            throw new IllegalArgumentException("Low stock threshold key should be color" + KEY_SEPARATOR
+                    + "cottonPercentage, got " + key);
+        }
+        double cottonPercentage = Double.parseDouble(key.substring(separator + 1).trim());
+        return new StockKey(null, ColorNameUtils.normalize(key.substring(0, separator)),
+                CottonPercentageUtils.toBasisPoints(cottonPercentage));
+    }
+
+    private record StockKey(Integer warehouseId, String normalizedColor, int cottonBasisPoints) {
+    }
+
+    private record SockId(Integer warehouseId, Long id) {
+    }
+}
@@ -0,0 +1,220 @@
+package com.example.sockApi.service;
+
+import com.example.sockApi.config.ShardingProperties;
+import com.example.sockApi.datasource.ShardContext;
+import com.example.sockApi.datasource.ShardRoutingDataSource;
+import com.example.sockApi.dto.SockCountDto;
+import com.example.sockApi.dto.SockDto;
+import com.example.sockApi.dto.SockFilterExpressionDto;
+import com.example.sockApi.enums.SortBy;
+import com.example.sockApi.exception.BusinessException;
+import com.example.sockApi.utils.SockSortingUtils;
+import com.example.sockApi.web.ClientContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Service
+@Slf4j
+public class ShardedSockService {
+
+    private final SockService sockService;
+
+    private final ShardRoutingDataSource shardRoutingDataSource;
+
+    private final ColorDictionary colorDictionary;
+
+    private final ShardingProperties properties;
+
+    private final ExecutorService shardReads;
+
+    public ShardedSockService(SockService sockService, ShardRoutingDataSource shardRoutingDataSource,
+                              ColorDictionary colorDictionary, ShardingProperties properties) {
+        this.sockService = sockService;
+        this.shardRoutingDataSource = shardRoutingDataSource;
+        this.colorDictionary = colorDictionary;
+        this.properties = properties;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.shardReads = Executors.newFixedThreadPool(properties.getFanOutThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "shard-reads-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        shardReads.shutdownNow();
+    }
+
+    public List<SockDto> getSocks(String color, Double exactCottonPercentage, Double minCottonPercentage,
+                                  Double maxCottonPercentage, SortBy sortBy) {
+        if (!shardRoutingDataSource.isSharded()) {
+            return sockService.getSocks(color, exactCottonPercentage, minCottonPercentage, maxCottonPercentage, sortBy);
+        }
+        List<List<SockDto>> perShard = unchecked(() -> scatter(() ->
+                sockService.getSocks(color, exactCottonPercentage, minCottonPercentage, maxCottonPercentage, sortBy)));
+        return merge(perShard, sortBy);
+    }
+
+    public Integer getSocksCount(String color, Double exactCottonPercentage, Double minCottonPercentage,
+                                 Double maxCottonPercentage) {
+        if (!shardRoutingDataSource.isSharded()) {
+            return sockService.getSocksCount(color, exactCottonPercentage, minCottonPercentage, maxCottonPercentage);
+        }
+        return unchecked(() -> scatter(() ->
+                sockService.getSocksCount(color, exactCottonPercentage, minCottonPercentage, maxCottonPercentage)))
+                .stream()
+                .reduce(0, Integer::sum);
+    }
+
+    public List<SockDto> searchSocks(SockFilterExpressionDto expression) throws BusinessException {
+        if (!shardRoutingDataSource.isSharded()) {
+            return sockService.searchSocks(expression);
+        }
+        return merge(scatter(() -> sockService.searchSocks(expression)),
+                expression != null ? expression.getSortBy() : null);
+    }
+
+    public SockCountDto countSocks(SockFilterExpressionDto expression) throws BusinessException {
+        if (!shardRoutingDataSource.isSharded()) {
+            return sockService.countSocks(expression);
+        }
+        long total = 0;
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (SockCountDto shardCount : scatter(() -> sockService.countSocks(expression))) {
+            total += shardCount.getTotal();
+            shardCount.getByColor().forEach((color, count) -> counts.merge(color, count, Long::sum));
+        }
+
+        Map<String, Long> byColor = new LinkedHashMap<>();
+        counts.keySet().stream()
+                .sorted(Comparator.comparingInt(color -> colorDictionary.findId(color)
+                        .map(colorDictionary::rankOf)
+                        .orElse(Integer.MAX_VALUE)))
+                .forEach(color -> byColor.put(color, counts.get(color)));
+        return new SockCountDto(total, byColor);
+    }
+
+    private <T> List<T> scatter(ShardQuery<T> query) throws BusinessException {
+        Optional<String> clientId = ClientContext.currentClientId();
+        Map<String, Future<T>> futures = new LinkedHashMap<>();
+        for (String shard : shardRoutingDataSource.getShardNames()) {
+            futures.put(shard, shardReads.submit(() -> {
+                clientId.ifPresent(ClientContext::set);
+                try {
+                    return ShardContext.callOn(shard, () -> {
+                        try {
+                            return query.run();
+                        } catch (BusinessException e) {
+                            throw new CompletionException(e);
+                        }
+                    });
+                } finally {
+                    ClientContext.clear();
+                }
+            }));
+        }
+
+        long deadline = System.nanoTime() + properties.getShardTimeout().toNanos();
+        List<T> results = new ArrayList<>(futures.size());
+        try {
+            for (Map.Entry<String, Future<T>> entry : futures.entrySet()) {
+                results.add(awaitShard(entry.getKey(), entry.getValue(), deadline));
+            }
+            return results;
+        } finally {
+            futures.values().forEach(future -> future.cancel(true));
+        }
+    }
+
+    private <T> T awaitShard(String shard, Future<T> future, long deadline) throws BusinessException {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            String errorMessage = String.format("Shard %s did not answer within %s", shard, properties.getShardTimeout());
+            log.error(errorMessage);
+            throw new DataAccessResourceFailureException(errorMessage, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            String errorMessage = String.format("Interrupted while waiting for shard %s", shard);
+            log.error(errorMessage);
+            throw new DataAccessResourceFailureException(errorMessage, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof CompletionException && cause.getCause() instanceof BusinessException businessException) {
+                throw businessException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            String errorMessage = String.format("Shard %s query failed: %s", shard, cause.getMessage());
+            log.error(errorMessage);
+            throw new DataAccessResourceFailureException(errorMessage, cause);
+        }
+    }
+
+    private List<SockDto> merge(List<List<SockDto>> perShard, SortBy sortBy) {
+        List<SockDto> merged = new ArrayList<>(perShard.stream().mapToInt(List::size).sum());
+        if (sortBy == null) {
+            perShard.forEach(merged::addAll);
+            return merged;
+        }
+
+        // every shard list is already sorted, so a k-way merge keeps the order without re-sorting everything
+        Comparator<SockDto> comparator = SockSortingUtils.getDtoComparator(sortBy, colorDictionary);
+        PriorityQueue<ShardCursor> cursors = new PriorityQueue<>(
+                Comparator.comparing(ShardCursor::head, comparator).thenComparingInt(ShardCursor::shardIndex));
+        for (int i = 0; i < perShard.size(); i++) {
+            if (!perShard.get(i).isEmpty()) {
+                cursors.add(new ShardCursor(i, perShard.get(i), 0));
+            }
+        }
+        while (!cursors.isEmpty()) {
+            ShardCursor cursor = cursors.poll();
+            merged.add(cursor.head());
+            if (cursor.position() + 1 < cursor.socks().size()) {
+                cursors.add(new ShardCursor(cursor.shardIndex(), cursor.socks(), cursor.position() + 1));
+            }
+        }
+        return merged;
+    }
+
+    private static <T> T unchecked(ShardQuery<T> query) {
+        try {
+            return query.run();
+        } catch (BusinessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ShardQuery<T> {
+
+        T run() throws BusinessException;
+    }
+
+    private record ShardCursor(int shardIndex, List<SockDto> socks, int position) {
+
+        private SockDto head() {
+            return socks.get(position);
+        }
+    }
+}
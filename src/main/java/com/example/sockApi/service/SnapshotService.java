@@ -0,0 +1,324 @@
+package com.example.sockApi.service;
+
+import com.example.sockApi.config.BatchProperties;
+import com.example.sockApi.config.SnapshotProperties;
+import com.example.sockApi.datasource.ShardRoutingDataSource;
+import com.example.sockApi.dto.SnapshotInfoDto;
+import com.example.sockApi.dto.SockDto;
+import com.example.sockApi.entity.Color;
+import com.example.sockApi.exception.BusinessException;
+import com.example.sockApi.exception.TechnicalException;
+import com.example.sockApi.repository.ColorRepository;
+import com.example.sockApi.repository.SockRepository;
+import com.example.sockApi.repository.SockRow;
+import com.example.sockApi.snapshot.InvalidSnapshotException;
+import com.example.sockApi.snapshot.MappedSnapshot;
+import com.example.sockApi.snapshot.SnapshotColor;
+import com.example.sockApi.snapshot.SnapshotHeader;
+import com.example.sockApi.snapshot.SnapshotRecord;
+import com.example.sockApi.snapshot.SnapshotWriter;
+import com.example.sockApi.utils.CottonPercentageUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Service
+@Slf4j
+public class SnapshotService {
+
+    private static final String INSERT_SOCK = "INSERT INTO socks (id, warehouse_id, color_id, cotton_basis_points, count) "
+            + "VALUES (?, ?, ?, ?, ?)";
+
+    private final SockRepository sockRepository;
+
+    private final ColorRepository colorRepository;
+
+    private final ColorDictionary colorDictionary;
+
+    private final LowStockMonitor lowStockMonitor;
+
+    private final SockChangeFeed sockChangeFeed;
+
+    private final ShardedSockService shardedSockService;
+
+    private final ShardRoutingDataSource shardRoutingDataSource;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final SnapshotProperties properties;
+
+    private final BatchProperties batchProperties;
+
+    private final TransactionTemplate readTransaction;
+
+    private final TransactionTemplate restoreTransaction;
+
+    public SnapshotService(SockRepository sockRepository, ColorRepository colorRepository, ColorDictionary colorDictionary,
+                           LowStockMonitor lowStockMonitor, SockChangeFeed sockChangeFeed,
+                           ShardedSockService shardedSockService, ShardRoutingDataSource shardRoutingDataSource,
+                           JdbcTemplate jdbcTemplate, SnapshotProperties properties, BatchProperties batchProperties,
+                           PlatformTransactionManager transactionManager) {
+        this.sockRepository = sockRepository;
+        this.colorRepository = colorRepository;
+        this.colorDictionary = colorDictionary;
+        this.lowStockMonitor = lowStockMonitor;
+        this.sockChangeFeed = sockChangeFeed;
+        this.shardedSockService = shardedSockService;
+        this.shardRoutingDataSource = shardRoutingDataSource;
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.batchProperties = batchProperties;
+        // not read-only: a replica may lag behind the primary, and a restore of its snapshot would lose those writes
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.restoreTransaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Writes all socks and colors of the current shard to the snapshot file of that shard, replacing the previous one.
+     */
+    public SnapshotInfoDto writeSnapshot() throws TechnicalException {
+        String shard = shardRoutingDataSource.currentShard();
+        Path target = directory().resolve(fileName(shard));
+        try {
+            SnapshotHeader header = readTransaction.execute(status -> {
+                List<SnapshotColor> colors = colorRepository.findAll().stream()
+                        .map(color -> new SnapshotColor(color.getId(), color.getName(), color.getNormalizedName()))
+                        .toList();
+                try (Stream<SockRow> rows = sockRepository.streamAll()) {
+                    return SnapshotWriter.write(target, shard, colors, rows
+                            .map(row -> new SnapshotRecord(row.getId(), row.getWarehouse(), row.getColor(),
+                                    row.getCotton(), row.getCount()))
+                            .iterator());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            log.info("Inventory snapshot {} written: {} colors, {} records", target, header.colorCount(),
+                    header.recordCount());
+            return info(target, header);
+        } catch (UncheckedIOException e) {
+            String errorMessage = String.format("Error writing inventory snapshot %s", target);
+            log.error(errorMessage);
+            throw new TechnicalException(errorMessage, e.getCause());
+        }
+    }
+
+    /**
+     * Replaces all socks of the current shard with the snapshot content in one transaction. Ids are kept,
+     * so the identity columns are moved past the restored ids afterwards.
+     */
+    public SnapshotInfoDto restoreSnapshot(String fileName) throws BusinessException, TechnicalException {
+        String shard = shardRoutingDataSource.currentShard();
+        MappedSnapshot snapshot = open(resolve(fileName, shard));
+        checkShard(snapshot, shard);
+        try {
+            restoreTransaction.executeWithoutResult(status -> {
+                restoreColors(snapshot);
+                jdbcTemplate.update("DELETE FROM socks");
+                List<SnapshotRecord> batch = new ArrayList<>(batchProperties.getChunkSize());
+                snapshot.records().forEach(record -> {
+                    batch.add(record);
+                    if (batch.size() >= batchProperties.getChunkSize()) {
+                        insert(batch);
+                        batch.clear();
+                    }
+                });
+                if (!batch.isEmpty()) {
+                    insert(batch);
+                }
+                restartIdentity("socks");
+                restartIdentity("colors");
+            });
+        } catch (IllegalStateException e) {
+            String errorMessage = String.format("Snapshot %s does not match the stored colors: %s", snapshot.path(),
+                    e.getMessage());
+            log.error(errorMessage);
+            throw new BusinessException(errorMessage);
+        } catch (DataAccessException e) {
+            String errorMessage = String.format("Error restoring inventory snapshot %s, nothing was changed", snapshot.path());
+            log.error(errorMessage);
+            throw new TechnicalException(errorMessage, e);
+        }
+
+        // the restore bypassed the change events, so everything derived from them is rebuilt
+        colorDictionary.preload(colors(snapshot));
+        if (shardRoutingDataSource.isSharded()) {
+            lowStockMonitor.reload(shardedSockService.getSocks(null, null, null, null, null).stream());
+        } else {
+            lowStockMonitor.reload(socks(snapshot));
+        }
+        sockChangeFeed.resetAll();
+        log.info("Inventory snapshot {} restored: {} colors, {} records", snapshot.path(), snapshot.colors().size(),
+                snapshot.recordCount());
+        return info(snapshot.path(), snapshot.header());
+    }
+
+    // runs before the other ready listeners, so their reads find the colors cached; stock is not taken from the file,
+    // it can be up to max-age old and the low stock monitor still reads it from the database
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void warmStart() {
+        if (!properties.isWarmStart()) {
+            return;
+        }
+        // colors are handed out by the home shard, the other shards keep copies under the same ids
+        Path source = directory().resolve(fileName(ShardRoutingDataSource.HOME));
+        if (!Files.exists(source)) {
+            log.info("Warm start skipped: no inventory snapshot at {}", source);
+            return;
+        }
+        try {
+            MappedSnapshot snapshot = MappedSnapshot.open(source);
+            Duration age = Duration.between(Instant.ofEpochMilli(snapshot.header().createdAtMillis()), Instant.now());
+            if (age.compareTo(properties.getMaxAge()) > 0) {
+                log.info("Warm start skipped: inventory snapshot {} is {} old, the limit is {}", source, age,
+                        properties.getMaxAge());
+                return;
+            }
+            Optional<SnapshotColor> mismatch = mismatchedColor(snapshot.colors());
+            if (mismatch.isPresent()) {
+                log.warn("Warm start skipped: color {} has id {} in inventory snapshot {}, the database disagrees",
+                        mismatch.get().name(), mismatch.get().id(), source);
+                return;
+            }
+            colorDictionary.preload(colors(snapshot));
+            log.info("Warm start from inventory snapshot {}: {} colors, {} old", source, snapshot.colors().size(), age);
+        } catch (IOException | DataAccessException e) {
+            log.warn("Warm start skipped: inventory snapshot {} cannot be used - {}", source, e.getMessage());
+        }
+    }
+
+    private void restoreColors(MappedSnapshot snapshot) {
+        snapshot.colors().forEach(color ->
+                colorRepository.insertWithIdIfAbsent(color.id(), color.name(), color.normalizedName()));
+        mismatchedColor(snapshot.colors()).ifPresent(color -> {
+            throw new IllegalStateException(String.format("color %s has id %d in the snapshot", color.name(), color.id()));
+        });
+    }
+
+    // ids from a snapshot are only trusted while the database keeps the same colors under them
+    private Optional<SnapshotColor> mismatchedColor(List<SnapshotColor> colors) {
+        Map<Integer, String> stored = colorRepository.findAllById(colors.stream().map(SnapshotColor::id).toList())
+                .stream()
+                .collect(Collectors.toMap(Color::getId, Color::getNormalizedName));
+        return colors.stream()
+                .filter(color -> !color.normalizedName().equals(stored.get(color.id())))
+                .findFirst();
+    }
+
+    // checked before the transaction: stock of another shard must not be written into this one
+    private void checkShard(MappedSnapshot snapshot, String shard) throws BusinessException {
+        String errorMessage = null;
+        if (!shard.equals(snapshot.header().shard())) {
+            errorMessage = String.format("Snapshot %s was written on shard %s, the request is routed to shard %s",
+                    snapshot.path(), snapshot.header().shard(), shard);
+        } else {
+            Optional<SnapshotRecord> foreign = snapshot.records()
+                    .filter(record -> !shard.equals(shardRoutingDataSource.shardFor(record.warehouseId())))
+                    .findFirst();
+            if (foreign.isPresent()) {
+                errorMessage = String.format("Snapshot %s has stock of warehouse %d, which belongs to shard %s, not %s",
+                        snapshot.path(), foreign.get().warehouseId(),
+                        shardRoutingDataSource.shardFor(foreign.get().warehouseId()), shard);
+            }
+        }
+        if (errorMessage != null) {
+            log.error(errorMessage);
+            throw new BusinessException(errorMessage);
+        }
+    }
+
+    private void insert(List<SnapshotRecord> batch) {
+        jdbcTemplate.batchUpdate(INSERT_SOCK, batch, batch.size(), (statement, record) -> {
+            statement.setLong(1, record.id());
+            statement.setInt(2, record.warehouseId());
+            statement.setInt(3, record.colorId());
+            statement.setInt(4, record.cottonBasisPoints());
+            statement.setInt(5, record.count());
+        });
+    }
+
+    private void restartIdentity(String table) {
+        Long nextId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) + 1 FROM " + table, Long.class);
+        jdbcTemplate.execute("ALTER TABLE " + table + " ALTER COLUMN id RESTART WITH " + nextId);
+    }
+
+    private Path directory() {
+        return Paths.get(properties.getDirectory()).toAbsolutePath().normalize();
+    }
+
+    private String fileName(String shard) {
+        return shard + "-" + properties.getFileName();
+    }
+
+    private Path resolve(String fileName, String shard) throws BusinessException {
+        Path directory = directory();
+        Path source = directory.resolve(fileName == null || fileName.isBlank() ? fileName(shard) : fileName)
+                .normalize();
+        if (!source.startsWith(directory) || source.equals(directory)) {
+            String errorMessage = String.format("Snapshot file %s is outside of the snapshot directory", fileName);
+            log.error(errorMessage);
+            throw new BusinessException(errorMessage);
+        }
+        return source;
+    }
+
+    private static MappedSnapshot open(Path source) throws BusinessException, TechnicalException {
+        if (!Files.exists(source)) {
+            String errorMessage = String.format("Snapshot file %s does not exist", source);
+            log.error(errorMessage);
+            throw new BusinessException(errorMessage);
+        }
+        try {
+            return MappedSnapshot.open(source);
+        } catch (InvalidSnapshotException e) {
+            String errorMessage = String.format("Snapshot file cannot be restored: %s", e.getMessage());
+            log.error(errorMessage);
+            throw new BusinessException(errorMessage);
+        } catch (IOException e) {
+            String errorMessage = String.format("Error reading inventory snapshot %s", source);
+            log.error(errorMessage);
+            throw new TechnicalException(errorMessage, e);
+        }
+    }
+
+    private static List<Color> colors(MappedSnapshot snapshot) {
+        return snapshot.colors().stream()
+                .map(color -> new Color(color.id(), color.name(), color.normalizedName()))
+                .toList();
+    }
+
+    private static Stream<SockDto> socks(MappedSnapshot snapshot) {
+        Map<Integer, String> namesById = snapshot.colors().stream()
+                .collect(Collectors.toMap(SnapshotColor::id, SnapshotColor::name));
+        return snapshot.records().map(record -> new SockDto(record.id(), namesById.get(record.colorId()),
+                CottonPercentageUtils.toPercentage(record.cottonBasisPoints()), record.count(), record.warehouseId()));
+    }
+
+    private static SnapshotInfoDto info(Path path, SnapshotHeader header) {
+        return new SnapshotInfoDto(path.getFileName().toString(), header.shard(), header.formatVersion(),
+                Instant.ofEpochMilli(header.createdAtMillis()), header.colorCount(), header.recordCount(),
+                header.fileBytes(), String.format("%08x", header.crc32()));
+    }
+}
@@ -0,0 +1,284 @@
+package com.example.sockApi.service;
+
+import com.example.sockApi.config.BatchProperties;
+import com.example.sockApi.dto.BatchKeyTotalDto;
+import com.example.sockApi.dto.BatchReportDto;
+import com.example.sockApi.dto.BatchRowErrorDto;
+import com.example.sockApi.dto.SockDto;
+import com.example.sockApi.exception.BusinessException;
+import com.example.sockApi.exception.TechnicalException;
+import com.example.sockApi.utils.ColorNameUtils;
+import com.example.sockApi.utils.CottonPercentageUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+@Service
+@Slf4j
+public class SockBatchService {
+
+    private static final String CSV_SEPARATOR = ",";
+
+    private static final String GZIP_ENCODING = "gzip";
+
+    private static final String IDENTITY_ENCODING = "identity";
+
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    private final SockService sockService;
+
+    private final BatchProperties properties;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public SockBatchService(SockService sockService, BatchProperties properties,
+                            PlatformTransactionManager transactionManager) {
+        this.sockService = sockService;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public BatchReportDto ingestCsvStream(InputStream body, String contentEncoding, String source)
+            throws BusinessException, TechnicalException {
+        if (contentEncoding == null || contentEncoding.isBlank() || IDENTITY_ENCODING.equalsIgnoreCase(contentEncoding.trim())) {
+            return ingestCsv(body, source);
+        }
+        if (!GZIP_ENCODING.equalsIgnoreCase(contentEncoding.trim())) {
+            String errorMessage = String.format("Unsupported content encoding %s, expected gzip or identity", contentEncoding);
+            log.error(errorMessage);
+            throw new BusinessException(errorMessage);
+        }
+
+        GZIPInputStream gzipInputStream;
+        try {
+            gzipInputStream = new GZIPInputStream(body, GZIP_BUFFER_SIZE);
+        } catch (IOException e) {
+            String errorMessage = String.format("Error reading gzip header of %s", source);
+            log.error(errorMessage);
+            throw new TechnicalException(errorMessage, e);
+        }
+        return ingestCsv(gzipInputStream, source);
+    }
+
+    public BatchReportDto ingestCsv(MultipartFile file) throws TechnicalException {
+        InputStream inputStream;
+        try {
+            inputStream = file.getInputStream();
+        } catch (IOException e) {
+            String errorMessage = String.format("Error reading uploaded CSV-file %s", file.getOriginalFilename());
+            log.error(errorMessage);
+            throw new TechnicalException(errorMessage, e);
+        }
+        return ingestCsv(inputStream, file.getOriginalFilename());
+    }
+
+    public BatchReportDto ingestCsv(InputStream inputStream, String source) throws TechnicalException {
+        BatchReport report = new BatchReport(source, properties.getMaxReportedErrors());
+        List<CsvRow> chunk = new ArrayList<>(properties.getChunkSize());
+        long lineNumber = 0;
+
+        try (BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = bufferedReader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                CsvRow row = parse(lineNumber, line, report);
+                if (row != null) {
+                    chunk.add(row);
+                    if (chunk.size() >= properties.getChunkSize()) {
+                        applyChunk(chunk, report);
+                        chunk.clear();
+                    }
+                }
+            }
+            if (!chunk.isEmpty()) {
+                applyChunk(chunk, report);
+            }
+        } catch (IOException e) {
+            String errorMessage = String.format("Error reading CSV-file %s after line %d, %d rows already applied",
+                    source, lineNumber, report.applied);
+            log.error(errorMessage);
+            throw new TechnicalException(errorMessage, e);
+        }
+
+        log.info("CSV-file {} processed: {} rows applied, {} rows rejected", source, report.applied, report.rejected);
+        return report.toDto();
+    }
+
+    private static CsvRow parse(long lineNumber, String line, BatchReport report) {
+        String[] fields = line.split(CSV_SEPARATOR, -1);
+        if (fields.length != 3) {
+            report.reject(lineNumber, line, "expected 3 fields: color,cottonPercentage,count");
+            return null;
+        }
+
+        String color = fields[0].trim();
+        if (color.isEmpty()) {
+            report.reject(lineNumber, line, "color is empty");
+            return null;
+        }
+
+        double cottonPercentage;
+        try {
+            cottonPercentage = Double.parseDouble(fields[1].trim());
+        } catch (NumberFormatException e) {
+            report.reject(lineNumber, line, "cotton percentage is not a number");
+            return null;
+        }
+        if (!CottonPercentageUtils.isValid(cottonPercentage)) {
+            report.reject(lineNumber, line, "cotton percentage should be 0-100");
+            return null;
+        }
+
+        int count;
+        try {
+            count = Integer.parseInt(fields[2].trim());
+        } catch (NumberFormatException e) {
+            report.reject(lineNumber, line, "count is not an integer");
+            return null;
+        }
+        if (count <= 0) {
+            report.reject(lineNumber, line, "count should be positive");
+            return null;
+        }
+
+        return new CsvRow(lineNumber, line, color, CottonPercentageUtils.toBasisPoints(cottonPercentage), count);
+    }
+
+    private void applyChunk(List<CsvRow> rows, BatchReport report) {
+        Map<ChunkKey, ChunkEntry> entries = new LinkedHashMap<>();
+        for (CsvRow row : rows) {
+            entries.computeIfAbsent(new ChunkKey(ColorNameUtils.normalize(row.color()), row.cottonBasisPoints()),
+                            key -> new ChunkEntry(row.color(), row.cottonBasisPoints()))
+                    .add(row.count());
+        }
+
+        try {
+            List<BatchKeyTotalDto> applied = transactionTemplate.execute(status -> {
+                List<BatchKeyTotalDto> totals = new ArrayList<>(entries.size());
+                for (ChunkEntry entry : entries.values()) {
+                    totals.add(entry.apply(sockService));
+                }
+                return totals;
+            });
+            report.applied(rows.size(), applied);
+        } catch (CannotCreateTransactionException | TransientDataAccessException | DataAccessResourceFailureException e) {
+            // the database is unavailable or overloaded, retrying row by row would only make it worse
+            throw e;
+        } catch (RuntimeException e) {
+            log.warn("Chunk of lines {}-{} of CSV-file {} rolled back, retrying its rows one by one: {}",
+                    rows.get(0).lineNumber(), rows.get(rows.size() - 1).lineNumber(), report.source, e.getMessage());
+            rows.forEach(row -> applyRow(row, report));
+        }
+    }
+
+    // only the rows that fail on their own data are rejected, the rest of a rolled back chunk is still applied
+    private void applyRow(CsvRow row, BatchReport report) {
+        ChunkEntry entry = new ChunkEntry(row.color(), row.cottonBasisPoints());
+        entry.add(row.count());
+        try {
+            BatchKeyTotalDto applied = transactionTemplate.execute(status -> entry.apply(sockService));
+            report.applied(1, List.of(applied));
+        } catch (CannotCreateTransactionException | TransientDataAccessException | DataAccessResourceFailureException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            log.error("Error adding socks from CSV-file {}, line {}: {}", report.source, row.lineNumber(), e.getMessage());
+            report.reject(row.lineNumber(), row.line(), e.getMessage());
+        }
+    }
+
+    private record CsvRow(long lineNumber, String line, String color, int cottonBasisPoints, int count) {
+    }
+
+    private record ChunkKey(String normalizedColor, int cottonBasisPoints) {
+    }
+
+    private static final class ChunkEntry {
+
+        private final String color;
+
+        private final int cottonBasisPoints;
+
+        private long received;
+
+        private ChunkEntry(String color, int cottonBasisPoints) {
+            this.color = color;
+            this.cottonBasisPoints = cottonBasisPoints;
+        }
+
+        private void add(int count) {
+            received += count;
+        }
+
+        private BatchKeyTotalDto apply(SockService sockService) {
+            try {
+                SockDto sock = sockService.addSocks(color, CottonPercentageUtils.toPercentage(cottonBasisPoints),
+                        Math.toIntExact(received));
+                return new BatchKeyTotalDto(sock.getId(), sock.getColor(), sock.getCottonPercentage(), received, sock.getCount());
+            } catch (BusinessException e) {
+                throw new IllegalStateException(e.getMessage(), e);
+            }
+        }
+    }
+
+    private static final class BatchReport {
+
+        private final String source;
+
+        private final int maxReportedErrors;
+
+        private final List<BatchRowErrorDto> errors = new ArrayList<>();
+
+        private final Map<Long, BatchKeyTotalDto> totals = new LinkedHashMap<>();
+
+        private long applied;
+
+        private long rejected;
+
+        private BatchReport(String source, int maxReportedErrors) {
+            this.source = source;
+            this.maxReportedErrors = maxReportedErrors;
+        }
+
+        private void reject(long lineNumber, String line, String reason) {
+            rejected++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new BatchRowErrorDto(lineNumber, line, reason));
+            }
+        }
+
+        private void applied(int rows, List<BatchKeyTotalDto> chunkTotals) {
+            applied += rows;
+            for (BatchKeyTotalDto chunkTotal : chunkTotals) {
+                totals.merge(chunkTotal.getId(), chunkTotal, (total, next) -> {
+                    total.setReceived(total.getReceived() + next.getReceived());
+                    total.setCount(next.getCount());
+                    return total;
+                });
+            }
+        }
+
+        private BatchReportDto toDto() {
+            return new BatchReportDto(source, applied, rejected, errors, rejected > errors.size(),
+                    new ArrayList<>(totals.values()));
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.sockApi.service;
+
+import com.example.sockApi.config.ChangeFeedProperties;
+import com.example.sockApi.dto.SockChangeDto;
+import com.example.sockApi.event.SockChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Service
+@Slf4j
+public class SockChangeFeed {
+
+    private static final String CHANGE_EVENT = "sock-change";
+
+    private static final String RESET_EVENT = "reset";
+
+    private final ChangeFeedProperties properties;
+
+    private final ChangeReplayBuffer replayBuffer;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private final ExecutorService dispatcher;
+
+    private long version;
+
+    private long resetVersion;
+
+    public SockChangeFeed(ChangeFeedProperties properties) {
+        this.properties = properties;
+        this.replayBuffer = new ChangeReplayBuffer(properties.getReplayBufferSize());
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.dispatcher = Executors.newFixedThreadPool(properties.getDispatcherThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "sock-changes-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSockChanged(SockChangedEvent event) {
+        synchronized (this) {
+            SockChangeDto change = new SockChangeDto(++version, event.getId(), event.getColor(),
+                    event.getCottonPercentage(), event.getOldCount(), event.getNewCount());
+            replayBuffer.add(change);
+            subscribers.forEach(subscriber -> subscriber.offer(change));
+        }
+    }
+
+    public SseEmitter subscribe(Long lastVersion) {
+        SseEmitter emitter = createEmitter();
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+
+        synchronized (this) {
+            if (lastVersion != null) {
+                List<SockChangeDto> missed = replayBuffer.since(lastVersion);
+                boolean replayable = lastVersion <= version && lastVersion >= resetVersion
+                        && lastVersion + 1 >= Math.min(replayBuffer.oldestVersion(), version + 1)
+                        && missed.size() <= properties.getSubscriberQueueSize();
+                if (replayable) {
+                    missed.forEach(subscriber::offer);
+                } else {
+                    subscriber.resetTo(version);
+                }
+            }
+            subscribers.add(subscriber);
+        }
+        log.info("Change feed subscriber connected from version {}, {} subscribers", lastVersion, subscribers.size());
+        subscriber.schedule();
+        return emitter;
+    }
+
+    // subscribers have to reload everything, e.g. after the inventory was restored from a snapshot
+    public void resetAll() {
+        synchronized (this) {
+            resetVersion = version;
+            subscribers.forEach(subscriber -> {
+                subscriber.resetTo(version);
+                subscriber.schedule();
+            });
+        }
+        log.info("Change feed reset sent to {} subscribers", subscribers.size());
+    }
+
+    SseEmitter createEmitter() {
+        return new SseEmitter(properties.getEmitterTimeout().toMillis());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        dispatcher.shutdownNow();
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+
+        private final BlockingQueue<SockChangeDto> queue;
+
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        private volatile Long resetVersion;
+
+        private volatile boolean closed;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(properties.getSubscriberQueueSize());
+        }
+
+        private void offer(SockChangeDto change) {
+            if (closed) {
+                return;
+            }
+            if (queue.offer(change)) {
+                schedule();
+            } else {
+                log.warn("Change feed subscriber dropped - it is more than {} changes behind",
+                        properties.getSubscriberQueueSize());
+                close();
+                emitter.complete();
+            }
+        }
+
+        private void resetTo(long currentVersion) {
+            resetVersion = currentVersion;
+            // the reset covers everything queued so far, those changes must not arrive after it
+            queue.clear();
+        }
+
+        private void schedule() {
+            if (!closed && draining.compareAndSet(false, true)) {
+                dispatcher.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                Long reset = resetVersion;
+                if (reset != null) {
+                    resetVersion = null;
+                    emitter.send(SseEmitter.event().id(String.valueOf(reset)).name(RESET_EVENT).data(reset));
+                }
+                SockChangeDto change;
+                while (!closed && resetVersion == null && (change = queue.poll()) != null) {
+                    emitter.send(SseEmitter.event()
+                            .id(String.valueOf(change.getVersion()))
+                            .name(CHANGE_EVENT)
+                            .data(change, MediaType.APPLICATION_JSON));
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.info("Change feed subscriber disconnected: {}", e.getMessage());
+                close();
+            } finally {
+                draining.set(false);
+                // a reset or change that came in while draining could not schedule another drain itself
+                if (resetVersion != null || !queue.isEmpty()) {
+                    schedule();
+                }
+            }
+        }
+
+        private void close() {
+            closed = true;
+            queue.clear();
+            subscribers.remove(this);
+        }
+    }
+}
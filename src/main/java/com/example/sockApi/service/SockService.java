@@ -1,17 +1,26 @@
 package com.example.sockApi.service;
 
+import com.example.sockApi.dto.SockCountDto;
 import com.example.sockApi.dto.SockDto;
+import com.example.sockApi.dto.SockFilterExpressionDto;
 import com.example.sockApi.entity.Sock;
 import com.example.sockApi.enums.SortBy;
+import com.example.sockApi.event.SockChangedEvent;
 import com.example.sockApi.exception.BusinessException;
 import com.example.sockApi.exception.TechnicalException;
+import com.example.sockApi.filter.SockFilter;
+import com.example.sockApi.filter.SockFilterCompiler;
+import com.example.sockApi.filter.SockFilterExpression;
 import com.example.sockApi.repository.SockRepository;
 import com.example.sockApi.repository.specifications.SockSpecifications;
 import com.example.sockApi.repository.specifications.SpecificationBuilder;
+import com.example.sockApi.utils.CottonPercentageUtils;
 import com.example.sockApi.utils.MappingUtils;
 import com.example.sockApi.utils.SockSortingUtils;
+import com.example.sockApi.web.WarehouseContext;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -35,60 +44,103 @@ public class SockService {
 
     private final SpecificationBuilder<Sock> specificationBuilder;
 
-    private static Sock createSock(String color, double cottonPercentage, int count) {
-        Sock newSock = new Sock();
-        newSock.setColor(color);
-        newSock.setCottonPercentage(cottonPercentage);
-        newSock.setCount(count);
-        return newSock;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final ColorDictionary colorDictionary;
+
+    private final SockFilterCompiler sockFilterCompiler;
+
+    private final HotKeyTracker hotKeyTracker;
+
+    private void publishChange(SockDto sock, Integer oldCount) {
+        eventPublisher.publishEvent(new SockChangedEvent(sock.getId(), sock.getColor(), sock.getCottonPercentage(),
+                oldCount, sock.getCount(), sock.getWarehouseId()));
     }
 
-    public List<SockDto> getSocksByFilters(String color, Double exactCottonPercentage,
-                                           Double minCottonPercentage, Double maxCottonPercentage) {
+    private List<Sock> findSocks(String color, Double exactCottonPercentage,
+                                 Double minCottonPercentage, Double maxCottonPercentage) {
+        SockFilter filter = SockFilter.of(color, exactCottonPercentage, minCottonPercentage, maxCottonPercentage);
+        Integer colorId = null;
+        if (filter.normalizedColor() != null) {
+            Optional<Integer> knownColorId = colorDictionary.findId(color);
+            if (knownColorId.isEmpty()) {
+                return List.of();
+            }
+            colorId = knownColorId.get();
+        }
 
         Specification<Sock> specification = specificationBuilder.build(List.of(
-                SockSpecifications.colorEquals(color),
-                SockSpecifications.cottonPercentageEquals(exactCottonPercentage),
-                SockSpecifications.cottonPercentageBetween(minCottonPercentage, maxCottonPercentage)
+                SockSpecifications.colorIdEquals(colorId),
+                SockSpecifications.cottonBasisPointsEquals(filter.exactCottonBasisPoints()),
+                SockSpecifications.cottonBasisPointsBetween(filter.minCottonBasisPoints(), filter.maxCottonBasisPoints())
         ));
 
-        return sockRepository
-                .findAll(specification)
+        return sockRepository.findAll(specification);
+    }
+
+    @Transactional(readOnly = true)
+    public List<SockDto> getSocksByFilters(String color, Double exactCottonPercentage,
+                                           Double minCottonPercentage, Double maxCottonPercentage) {
+
+        return findSocks(color, exactCottonPercentage, minCottonPercentage, maxCottonPercentage)
                 .stream()
                 .map(mappingUtils::mapToSockDto)
                 .toList();
 
     }
 
+    @Transactional(rollbackFor = BusinessException.class)
     public SockDto addSocks(String color, double cottonPercentage, int count) throws BusinessException {
-        if (cottonPercentage > 100 || cottonPercentage < 0) {
+        if (!CottonPercentageUtils.isValid(cottonPercentage)) {
             String errorMessage = String.format("Socks income error - cotton percentage should be 0-100 (passed value is %f)",
                     cottonPercentage);
             log.error(errorMessage);
             throw new BusinessException(errorMessage);
         }
 
-        Optional<Sock> optionalSock = sockRepository.findByColorAndCottonPercentage(color, cottonPercentage);
-        Sock sock;
-
-        if (optionalSock.isPresent()) {
-            sock = optionalSock.get();
-            sock.setCount(sock.getCount() + count);
-        } else {
-            sock = createSock(color, cottonPercentage, count);
+        Integer colorId = colorDictionary.resolveId(color);
+        int cottonBasisPoints = CottonPercentageUtils.toBasisPoints(cottonPercentage);
+        Integer warehouseId = WarehouseContext.currentWarehouseId();
+        Optional<Sock> optionalSock = sockRepository.findByWarehouseIdAndColorIdAndCottonBasisPoints(
+                warehouseId, colorId, cottonBasisPoints);
+        if (optionalSock.isEmpty()) {
+            // concurrent first incomes of the same socks both end up adding to the one row the unique key lets in
+            sockRepository.insertIfAbsent(warehouseId, colorId, cottonBasisPoints);
+            optionalSock = sockRepository.findByWarehouseIdAndColorIdAndCottonBasisPoints(
+                    warehouseId, colorId, cottonBasisPoints);
         }
-        return mappingUtils.mapToSockDto(sockRepository.save(sock));
+        Sock sock = optionalSock.orElseThrow();
+        int oldCount = sock.getCount();
+        sock.setCount(oldCount + count);
+        SockDto savedSock = mappingUtils.mapToSockDto(sockRepository.save(sock));
+        hotKeyTracker.recordWrite(color, cottonPercentage);
+        publishChange(savedSock, oldCount);
+        return savedSock;
     }
 
+    @Transactional(rollbackFor = BusinessException.class)
     public SockDto removeSocks(String color, double cottonPercentage, int count) throws BusinessException {
-        Optional<Sock> optionalSock = sockRepository.findByColorAndCottonPercentage(color, cottonPercentage);
+        if (!CottonPercentageUtils.isValid(cottonPercentage)) {
+            String errorMessage = String.format("Sock outcome error - cotton percentage should be 0-100 (passed value is %f)",
+                    cottonPercentage);
+            log.error(errorMessage);
+            throw new BusinessException(errorMessage);
+        }
+
+        Optional<Sock> optionalSock = colorDictionary.findId(color)
+                .flatMap(colorId -> sockRepository.findByWarehouseIdAndColorIdAndCottonBasisPoints(
+                        WarehouseContext.currentWarehouseId(), colorId, CottonPercentageUtils.toBasisPoints(cottonPercentage)));
         if (optionalSock.isPresent()) {
             Sock sock = optionalSock.get();
             int remains = sock.getCount() - count;
             if (remains >= 0) {
+                int oldCount = sock.getCount();
                 sock.setCount(remains);
                 sockRepository.save(sock);
-                return mappingUtils.mapToSockDto(sock);
+                hotKeyTracker.recordWrite(color, cottonPercentage);
+                SockDto changedSock = mappingUtils.mapToSockDto(sock);
+                publishChange(changedSock, oldCount);
+                return changedSock;
             } else {
                 String errorMessage = String.format("Sock outcome error - the required socks are not in stock (color: %s, cotton percentage: %f, quantity: %d)",
                         color, cottonPercentage, count);
@@ -103,42 +155,104 @@ public class SockService {
         }
     }
 
+    @Transactional(rollbackFor = BusinessException.class)
     public SockDto updateSocks(Long id, String color, double cottonPercentage, int count) throws BusinessException {
-        Optional<Sock> optionalSock = sockRepository.findById(id);
+        if (!CottonPercentageUtils.isValid(cottonPercentage)) {
+            String errorMessage = String.format("Update error - cotton percentage should be 0-100 (passed value is %f)",
+                    cottonPercentage);
+            log.error(errorMessage);
+            throw new BusinessException(errorMessage);
+        }
+
+        Optional<Sock> optionalSock = sockRepository.findById(id)
+                .filter(sock -> Objects.equals(sock.getWarehouseId(), WarehouseContext.currentWarehouseId()));
         if (optionalSock.isPresent()) {
             Sock sock = optionalSock.get();
-            sock.setColor(color);
-            sock.setCottonPercentage(cottonPercentage);
+            Integer oldColorId = sock.getColor().getId();
+            Integer oldCottonBasisPoints = sock.getCottonBasisPoints();
+            Integer oldCount = sock.getCount();
+            Integer colorId = colorDictionary.resolveId(color);
+            int cottonBasisPoints = CottonPercentageUtils.toBasisPoints(cottonPercentage);
+            sock.setColor(colorDictionary.getReference(colorId));
+            sock.setCottonBasisPoints(cottonBasisPoints);
             sock.setCount(count);
-            return mappingUtils.mapToSockDto(sockRepository.save(sock));
+            SockDto updatedSock = mappingUtils.mapToSockDto(sockRepository.save(sock));
+            hotKeyTracker.recordWrite(color, cottonPercentage);
+            if (Objects.equals(oldColorId, colorId) && Objects.equals(oldCottonBasisPoints, cottonBasisPoints)) {
+                publishChange(updatedSock, oldCount);
+            } else {
+                eventPublisher.publishEvent(new SockChangedEvent(id, colorDictionary.nameOf(oldColorId),
+                        CottonPercentageUtils.toPercentage(oldCottonBasisPoints), oldCount, 0, sock.getWarehouseId()));
+                publishChange(updatedSock, 0);
+            }
+            return updatedSock;
         } else {
-            String errorMessage = String.format("Update error - missing items with the passed Id: %d", id);
+            String errorMessage = String.format("Update error - missing items with the passed Id: %d in warehouse %d",
+                    id, WarehouseContext.currentWarehouseId());
             log.error(errorMessage);
             throw new BusinessException(errorMessage);
         }
     }
 
+    @Transactional(readOnly = true)
     public List<SockDto> getSocks(String color, Double exactCottonPercentage, Double minCottonPercentage, Double maxCottonPercentage,
                                   SortBy sortBy) {
-        List<SockDto> sockList = getSocksByFilters(color, exactCottonPercentage, minCottonPercentage, maxCottonPercentage);
+        List<Sock> sockList = findSocks(color, exactCottonPercentage, minCottonPercentage, maxCottonPercentage);
 
         if (sortBy != null) {
-            Comparator<SockDto> comparator = SockSortingUtils.getComparator(sortBy);
+            Comparator<Sock> comparator = SockSortingUtils.getComparator(sortBy, colorDictionary);
             sockList = sockList.stream()
                     .sorted(comparator)
                     .toList();
         }
 
-        return sockList;
+        return sockList.stream()
+                .map(mappingUtils::mapToSockDto)
+                .toList();
     }
 
+    @Transactional(readOnly = true)
     public Integer getSocksCount(String color, Double exactCottonPercentage, Double minCottonPercentage, Double maxCottonPercentage) {
-        List<SockDto> sockList = getSocksByFilters(color, exactCottonPercentage, minCottonPercentage, maxCottonPercentage);
+        List<Sock> sockList = findSocks(color, exactCottonPercentage, minCottonPercentage, maxCottonPercentage);
         return sockList.stream()
-                .map(SockDto::getCount)
+                .map(Sock::getCount)
                 .reduce(0, Integer::sum);
     }
 
+    @Transactional(readOnly = true)
+    public List<SockDto> searchSocks(SockFilterExpressionDto expression) throws BusinessException {
+        SockFilterExpression filter = sockFilterCompiler.compile(expression);
+        List<Sock> sockList = sockRepository.findAll(filter.toSpecification());
+
+        if (expression != null && expression.getSortBy() != null) {
+            Comparator<Sock> comparator = SockSortingUtils.getComparator(expression.getSortBy(), colorDictionary);
+            sockList = sockList.stream()
+                    .sorted(comparator)
+                    .toList();
+        }
+
+        return sockList.stream()
+                .map(mappingUtils::mapToSockDto)
+                .toList();
+    }
+
+    @Transactional(readOnly = true)
+    public SockCountDto countSocks(SockFilterExpressionDto expression) throws BusinessException {
+        SockFilterExpression filter = sockFilterCompiler.compile(expression);
+        Map<Integer, Long> countsByColorId = new HashMap<>();
+        long total = 0;
+        for (Sock sock : sockRepository.findAll(filter.toSpecification())) {
+            countsByColorId.merge(sock.getColor().getId(), (long) sock.getCount(), Long::sum);
+            total += sock.getCount();
+        }
+
+        Map<String, Long> byColor = new LinkedHashMap<>();
+        countsByColorId.keySet().stream()
+                .sorted(Comparator.comparingInt(colorDictionary::rankOf))
+                .forEach(colorId -> byColor.put(colorDictionary.nameOf(colorId), countsByColorId.get(colorId)));
+        return new SockCountDto(total, byColor);
+    }
+
     @Transactional(rollbackFor = {TechnicalException.class, BusinessException.class, RuntimeException.class})
     public List<SockDto> processFileCsv(MultipartFile file) throws BusinessException, TechnicalException {
 
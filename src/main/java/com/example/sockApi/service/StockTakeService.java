@@ -0,0 +1,386 @@
+package com.example.sockApi.service;
+
+import com.example.sockApi.config.BatchProperties;
+import com.example.sockApi.dto.StockTakeDiffDto;
+import com.example.sockApi.dto.StockTakeReportDto;
+import com.example.sockApi.event.SockChangedEvent;
+import com.example.sockApi.exception.BusinessException;
+import com.example.sockApi.exception.TechnicalException;
+import com.example.sockApi.repository.SockRepository;
+import com.example.sockApi.repository.StockTakeRow;
+import com.example.sockApi.utils.ColorNameUtils;
+import com.example.sockApi.utils.CottonPercentageUtils;
+import com.example.sockApi.web.WarehouseContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+@Service
+@Slf4j
+public class StockTakeService {
+
+    private static final String CSV_SEPARATOR = ",";
+
+    private static final Comparator<StockKey> KEY_ORDER = Comparator.comparing(StockKey::normalizedColor)
+            .thenComparingInt(StockKey::cottonBasisPoints);
+
+    private final SockRepository sockRepository;
+
+    private final SockService sockService;
+
+    private final ColorDictionary colorDictionary;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final BatchProperties properties;
+
+    private final TransactionTemplate pageTransaction;
+
+    private final TransactionTemplate batchTransaction;
+
+    public StockTakeService(SockRepository sockRepository, SockService sockService, ColorDictionary colorDictionary,
+                            ApplicationEventPublisher eventPublisher, BatchProperties properties,
+                            PlatformTransactionManager transactionManager) {
+        this.sockRepository = sockRepository;
+        this.sockService = sockService;
+        this.colorDictionary = colorDictionary;
+        this.eventPublisher = eventPublisher;
+        this.properties = properties;
+        // not read-only: the diff has to come from the primary, a lagging replica would report stale differences
+        this.pageTransaction = new TransactionTemplate(transactionManager);
+        this.batchTransaction = new TransactionTemplate(transactionManager);
+        this.batchTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Sets the stock of the current warehouse to the counted values. The file lists color,cottonPercentage,count
+     * sorted by color (lower case) and cotton percentage; positions missing from the file are counted as 0.
+     */
+    public StockTakeReportDto reconcile(MultipartFile file, boolean dryRun) throws BusinessException, TechnicalException {
+        String source = file.getOriginalFilename();
+        // the first pass only checks the file, so a bad line never leaves a half-applied stock-take behind
+        long rows;
+        try (CsvCursor csv = new CsvCursor(file, source)) {
+            rows = 0;
+            while (csv.next() != null) {
+                rows++;
+            }
+        } catch (IOException e) {
+            throw readError(source, e);
+        }
+
+        StockTakeReport report = new StockTakeReport(source, dryRun, rows, properties.getMaxReportedDifferences());
+        int warehouseId = WarehouseContext.currentWarehouseId();
+        try (CsvCursor csv = new CsvCursor(file, source)) {
+            merge(csv, new StockPages(warehouseId), report, warehouseId);
+        } catch (IOException e) {
+            throw readError(source, e);
+        } catch (BusinessException | RuntimeException e) {
+            String errorMessage = String.format("Stock-take %s stopped after %d applied changes, it is safe to run it again: %s",
+                    source, report.applied, e.getMessage());
+            log.error(errorMessage);
+            throw new TechnicalException(errorMessage, e);
+        }
+
+        log.info("Stock-take {} {}: {} updated, {} added, {} zeroed, {} applied, {} conflicts", source,
+                dryRun ? "checked" : "processed", report.updated, report.added, report.zeroed, report.applied, report.conflicts);
+        return report.toDto();
+    }
+
+    private void merge(CsvCursor csv, Iterator<StockTakeRow> stock, StockTakeReport report, int warehouseId)
+            throws IOException, BusinessException {
+        List<StockTakeDiffDto> batch = new ArrayList<>(properties.getChunkSize());
+        CsvRow counted = csv.next();
+        StockTakeRow stored = stock.hasNext() ? stock.next() : null;
+
+        while (counted != null || stored != null) {
+            int order = counted == null ? 1
+                    : stored == null ? -1
+                    : KEY_ORDER.compare(counted.key(), new StockKey(stored.getNormalized(), stored.getCotton()));
+            StockTakeDiffDto difference = null;
+            if (order == 0) {
+                report.countBefore += stored.getCount();
+                if (counted.count() != stored.getCount()) {
+                    difference = diff(stored, counted.count());
+                    report.updated++;
+                }
+                counted = csv.next();
+                stored = stock.hasNext() ? stock.next() : null;
+            } else if (order < 0) {
+                if (counted.count() > 0) {
+                    difference = new StockTakeDiffDto(null, counted.color(),
+                            CottonPercentageUtils.toPercentage(counted.key().cottonBasisPoints()), 0, counted.count());
+                    report.added++;
+                }
+                counted = csv.next();
+            } else {
+                report.countBefore += stored.getCount();
+                if (stored.getCount() != 0) {
+                    difference = diff(stored, 0);
+                    report.zeroed++;
+                }
+                stored = stock.hasNext() ? stock.next() : null;
+            }
+
+            if (difference == null) {
+                report.unchanged++;
+                continue;
+            }
+            report.difference(difference);
+            if (!report.dryRun) {
+                batch.add(difference);
+                if (batch.size() >= properties.getChunkSize()) {
+                    applyBatch(batch, report, warehouseId);
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            applyBatch(batch, report, warehouseId);
+        }
+    }
+
+    private void applyBatch(List<StockTakeDiffDto> batch, StockTakeReport report, int warehouseId) {
+        long conflicts = batchTransaction.execute(status -> {
+            long batchConflicts = 0;
+            for (StockTakeDiffDto difference : batch) {
+                if (!apply(difference, warehouseId)) {
+                    batchConflicts++;
+                    log.warn("Stock-take conflict: {} with {}% cotton changed while the stock-take was running, skipped",
+                            difference.getColor(), difference.getCottonPercentage());
+                }
+            }
+            return batchConflicts;
+        });
+        report.applied += batch.size() - conflicts;
+        report.conflicts += conflicts;
+    }
+
+    // the counts were read outside this transaction, so every write checks that nobody changed them in between
+    private boolean apply(StockTakeDiffDto difference, int warehouseId) {
+        if (difference.getId() != null) {
+            if (sockRepository.updateCountIfUnchanged(difference.getId(), difference.getOldCount(), difference.getNewCount()) == 0) {
+                return false;
+            }
+            eventPublisher.publishEvent(new SockChangedEvent(difference.getId(), difference.getColor(),
+                    difference.getCottonPercentage(), difference.getOldCount(), difference.getNewCount(), warehouseId));
+            return true;
+        }
+
+        int cottonBasisPoints = CottonPercentageUtils.toBasisPoints(difference.getCottonPercentage());
+        boolean exists = colorDictionary.findId(difference.getColor())
+                .flatMap(colorId -> sockRepository.findByWarehouseIdAndColorIdAndCottonBasisPoints(warehouseId, colorId,
+                        cottonBasisPoints))
+                .isPresent();
+        if (exists) {
+            return false;
+        }
+        try {
+            sockService.addSocks(difference.getColor(), difference.getCottonPercentage(), difference.getNewCount());
+        } catch (BusinessException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+        return true;
+    }
+
+    private static StockTakeDiffDto diff(StockTakeRow stored, int newCount) {
+        return new StockTakeDiffDto(stored.getId(), stored.getName(), CottonPercentageUtils.toPercentage(stored.getCotton()),
+                stored.getCount(), newCount);
+    }
+
+    private static TechnicalException readError(String source, IOException e) {
+        String errorMessage = String.format("Error reading stock-take file %s", source);
+        log.error(errorMessage);
+        return new TechnicalException(errorMessage, e);
+    }
+
+    private record StockKey(String normalizedColor, int cottonBasisPoints) {
+    }
+
+    // the stock is read in key-ordered pages of chunk-size rows, each in its own short transaction, so a stock-take
+    // never holds a read connection while a chunk transaction takes another one from the batch pool
+    // the stored stock in file order: colors sorted here, then each color in pages of chunk-size rows
+    private final class StockPages implements Iterator<StockTakeRow> {
+
+        private final int warehouseId;
+
+        private Iterator<String> colors;
+
+        private String color;
+
+        private int afterCotton;
+
+        private Iterator<StockTakeRow> page = Collections.emptyIterator();
+
+        private boolean lastPage = true;
+
+        private StockPages(int warehouseId) {
+            this.warehouseId = warehouseId;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!page.hasNext() && (!lastPage || colors().hasNext())) {
+                if (lastPage) {
+                    color = colors.next();
+                    afterCotton = -1;
+                }
+                List<StockTakeRow> rows = pageTransaction.execute(status -> sockRepository.findPageOfColor(warehouseId,
+                        color, afterCotton, properties.getChunkSize()));
+                lastPage = rows.size() < properties.getChunkSize();
+                page = rows.iterator();
+            }
+            return page.hasNext();
+        }
+
+        @Override
+        public StockTakeRow next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            StockTakeRow row = page.next();
+            afterCotton = row.getCotton();
+            return row;
+        }
+
+        // one name per color of the warehouse, in the String.compareTo order the file is checked against
+        private Iterator<String> colors() {
+            if (colors == null) {
+                colors = pageTransaction.execute(status -> sockRepository.findColorsInWarehouse(warehouseId))
+                        .stream()
+                        .sorted()
+                        .iterator();
+            }
+            return colors;
+        }
+    }
+
+    private record CsvRow(String color, StockKey key, int count) {
+    }
+
+    private static final class CsvCursor implements AutoCloseable {
+
+        private final BufferedReader reader;
+
+        private final String source;
+
+        private long lineNumber;
+
+        private StockKey previousKey;
+
+        private CsvCursor(MultipartFile file, String source) throws IOException {
+            this.reader = new BufferedReader(new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8));
+            this.source = source;
+        }
+
+        private CsvRow next() throws IOException, BusinessException {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (!line.isBlank()) {
+                    CsvRow row = parse(line);
+                    if (previousKey != null && KEY_ORDER.compare(previousKey, row.key()) >= 0) {
+                        throw invalidLine(line, "rows should be sorted by color and cotton percentage without repeats");
+                    }
+                    previousKey = row.key();
+                    return row;
+                }
+            }
+            return null;
+        }
+
+        private CsvRow parse(String line) throws BusinessException {
+            String[] fields = line.split(CSV_SEPARATOR, -1);
+            if (fields.length != 3 || fields[0].isBlank()) {
+                throw invalidLine(line, "expected 3 fields: color,cottonPercentage,count");
+            }
+            try {
+                double cottonPercentage = Double.parseDouble(fields[1].trim());
+                int count = Integer.parseInt(fields[2].trim());
+                if (!CottonPercentageUtils.isValid(cottonPercentage) || count < 0) {
+                    throw invalidLine(line, "cotton percentage should be 0-100 and count should not be negative");
+                }
+                String color = fields[0].trim();
+                return new CsvRow(color, new StockKey(ColorNameUtils.normalize(color),
+                        CottonPercentageUtils.toBasisPoints(cottonPercentage)), count);
+            } catch (NumberFormatException e) {
+                throw invalidLine(line, "cotton percentage or count is not a number");
+            }
+        }
+
+        private BusinessException invalidLine(String line, String reason) {
+            String errorMessage = String.format("Stock-take file %s, line %d (%s): %s", source, lineNumber, line, reason);
+            log.error(errorMessage);
+            return new BusinessException(errorMessage);
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    private static final class StockTakeReport {
+
+        private final String source;
+
+        private final boolean dryRun;
+
+        private final long rows;
+
+        private final int maxReportedDifferences;
+
+        private final List<StockTakeDiffDto> differences = new ArrayList<>();
+
+        private long unchanged;
+
+        private long updated;
+
+        private long added;
+
+        private long zeroed;
+
+        private long applied;
+
+        private long conflicts;
+
+        private long countBefore;
+
+        private long countDelta;
+
+        private StockTakeReport(String source, boolean dryRun, long rows, int maxReportedDifferences) {
+            this.source = source;
+            this.dryRun = dryRun;
+            this.rows = rows;
+            this.maxReportedDifferences = maxReportedDifferences;
+        }
+
+        private void difference(StockTakeDiffDto difference) {
+            countDelta += difference.getNewCount() - difference.getOldCount();
+            if (differences.size() < maxReportedDifferences) {
+                differences.add(difference);
+            }
+        }
+
+        private StockTakeReportDto toDto() {
+            long changed = updated + added + zeroed;
+            return new StockTakeReportDto(source, dryRun, rows, unchanged, updated, added, zeroed, applied, conflicts,
+                    countBefore, countBefore + countDelta, differences, changed > differences.size());
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.sockApi.service;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Count-min sketch over a sliding window: a ring of buckets, each a depth x width matrix of write counts
+ * and summed wait times. Updates are atomic adds, memory depends only on the dimensions, never on the keys.
+ */
+public class WindowedCountMinSketch {
+
+    private final int depth;
+
+    private final int width;
+
+    private final int bucketCount;
+
+    private final long bucketNanos;
+
+    private final AtomicLongArray counts;
+
+    private final AtomicLongArray waitNanos;
+
+    private final AtomicLongArray bucketEpochs;
+
+    public WindowedCountMinSketch(int depth, int width, int bucketCount, long windowNanos) {
+        this.depth = depth;
+        this.width = width;
+        this.bucketCount = bucketCount;
+        this.bucketNanos = Math.max(1, windowNanos / bucketCount);
+        this.counts = new AtomicLongArray(bucketCount * depth * width);
+        this.waitNanos = new AtomicLongArray(bucketCount * depth * width);
+        this.bucketEpochs = new AtomicLongArray(bucketCount);
+        for (int bucket = 0; bucket < bucketCount; bucket++) {
+            bucketEpochs.set(bucket, Long.MIN_VALUE);
+        }
+    }
+
+    /**
+     * @return true if this call opened a new bucket, i.e. the oldest part of the window was just dropped
+     */
+    public boolean increment(Object key, long nowNanos) {
+        long epoch = Math.floorDiv(nowNanos, bucketNanos);
+        boolean rotated = openBucket(epoch);
+        int bucket = (int) Math.floorMod(epoch, (long) bucketCount);
+        int hash = hash(key);
+        for (int row = 0; row < depth; row++) {
+            counts.incrementAndGet(cell(bucket, row, hash));
+        }
+        return rotated;
+    }
+
+    public void addWait(Object key, long waitedNanos, long nowNanos) {
+        long epoch = Math.floorDiv(nowNanos, bucketNanos);
+        openBucket(epoch);
+        int bucket = (int) Math.floorMod(epoch, (long) bucketCount);
+        int hash = hash(key);
+        for (int row = 0; row < depth; row++) {
+            waitNanos.addAndGet(cell(bucket, row, hash), waitedNanos);
+        }
+    }
+
+    public long estimateCount(Object key, long nowNanos) {
+        return estimate(counts, key, nowNanos);
+    }
+
+    public long estimateWaitNanos(Object key, long nowNanos) {
+        return estimate(waitNanos, key, nowNanos);
+    }
+
+    private long estimate(AtomicLongArray cells, Object key, long nowNanos) {
+        long epoch = Math.floorDiv(nowNanos, bucketNanos);
+        int hash = hash(key);
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            long sum = 0;
+            for (int bucket = 0; bucket < bucketCount; bucket++) {
+                long bucketEpoch = bucketEpochs.get(bucket);
+                if (bucketEpoch > epoch - bucketCount && bucketEpoch <= epoch) {
+                    sum += cells.get(cell(bucket, row, hash));
+                }
+            }
+            estimate = Math.min(estimate, sum);
+        }
+        return estimate;
+    }
+
+    private boolean openBucket(long epoch) {
+        int bucket = (int) Math.floorMod(epoch, (long) bucketCount);
+        long bucketEpoch = bucketEpochs.get(bucket);
+        if (bucketEpoch >= epoch || !bucketEpochs.compareAndSet(bucket, bucketEpoch, epoch)) {
+            return false;
+        }
+        // writes racing with the reset may be lost, which only makes the estimate a little lower
+        int from = bucket * depth * width;
+        for (int i = from; i < from + depth * width; i++) {
+            counts.set(i, 0);
+            waitNanos.set(i, 0);
+        }
+        return true;
+    }
+
+    private int cell(int bucket, int row, int hash) {
+        // double hashing: row i uses h1 + i * h2
+        int h2 = Integer.rotateLeft(hash, 16) | 1;
+        int column = Math.floorMod(hash + row * h2, width);
+        return (bucket * depth + row) * width + column;
+    }
+
+    private static int hash(Object key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.sockApi.snapshot;
+
+import java.io.IOException;
+
+public class InvalidSnapshotException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    public InvalidSnapshotException(String errorMessage) {
+        super(errorMessage);
+    }
+
+}
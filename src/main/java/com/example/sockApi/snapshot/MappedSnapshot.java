@@ -0,0 +1,123 @@
+package com.example.sockApi.snapshot;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Read-only view of a snapshot file mapped into memory. Records are decoded on access straight from the
+ * page cache, nothing is copied to the heap except the color dictionary.
+ */
+public final class MappedSnapshot {
+
+    private final Path path;
+
+    private final SnapshotHeader header;
+
+    private final List<SnapshotColor> colors;
+
+    private final ByteBuffer records;
+
+    private MappedSnapshot(Path path, SnapshotHeader header, List<SnapshotColor> colors, ByteBuffer records) {
+        this.path = path;
+        this.header = header;
+        this.colors = colors;
+        this.records = records;
+    }
+
+    /**
+     * Maps the file and checks its header, size and checksum; a file that fails any check is never partially read.
+     */
+    public static MappedSnapshot open(Path path) throws IOException {
+        MappedByteBuffer buffer;
+        // the mapping stays valid after the channel is closed
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < SnapshotHeader.SIZE) {
+                throw new InvalidSnapshotException(path + " is truncated");
+            }
+            if (size > Integer.MAX_VALUE) {
+                throw new InvalidSnapshotException(path + " is larger than 2 GB");
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+
+        SnapshotHeader header;
+        try {
+            header = SnapshotHeader.read(buffer.duplicate());
+        } catch (InvalidSnapshotException e) {
+            throw new InvalidSnapshotException(path + ": " + e.getMessage());
+        }
+        if (header.fileBytes() != buffer.capacity()) {
+            throw new InvalidSnapshotException(String.format("%s has %d bytes, the header expects %d", path,
+                    buffer.capacity(), header.fileBytes()));
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(buffer.slice(SnapshotHeader.SIZE, buffer.capacity() - SnapshotHeader.SIZE));
+        if ((int) crc.getValue() != header.crc32()) {
+            throw new InvalidSnapshotException(path + " is corrupt: checksum mismatch");
+        }
+
+        ByteBuffer colorSection = buffer.slice(SnapshotHeader.SIZE, (int) header.colorsBytes());
+        List<SnapshotColor> colors = new ArrayList<>(header.colorCount());
+        try {
+            for (int i = 0; i < header.colorCount(); i++) {
+                colors.add(new SnapshotColor(colorSection.getInt(), readString(colorSection), readString(colorSection)));
+            }
+        } catch (RuntimeException e) {
+            throw new InvalidSnapshotException(path + " has a corrupt color dictionary");
+        }
+        if (colorSection.hasRemaining()) {
+            throw new InvalidSnapshotException(path + " has a corrupt color dictionary");
+        }
+        ByteBuffer records = buffer.slice(SnapshotHeader.SIZE + (int) header.colorsBytes(),
+                (int) (header.recordCount() * SnapshotHeader.RECORD_SIZE));
+        return new MappedSnapshot(path, header, Collections.unmodifiableList(colors), records);
+    }
+
+    public Path path() {
+        return path;
+    }
+
+    public SnapshotHeader header() {
+        return header;
+    }
+
+    public List<SnapshotColor> colors() {
+        return colors;
+    }
+
+    public long recordCount() {
+        return header.recordCount();
+    }
+
+    public SnapshotRecord record(long index) {
+        if (index < 0 || index >= header.recordCount()) {
+            throw new IndexOutOfBoundsException("Record " + index + " of " + header.recordCount());
+        }
+        int offset = (int) (index * SnapshotHeader.RECORD_SIZE);
+        return new SnapshotRecord(records.getLong(offset), records.getInt(offset + 8), records.getInt(offset + 12),
+                records.getInt(offset + 16), records.getInt(offset + 20));
+    }
+
+    public Stream<SnapshotRecord> records() {
+        return LongStream.range(0, header.recordCount()).mapToObj(this::record);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[Short.toUnsignedInt(buffer.getShort())];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
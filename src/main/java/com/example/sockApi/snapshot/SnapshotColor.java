@@ -0,0 +1,4 @@
+package com.example.sockApi.snapshot;
+
+public record SnapshotColor(int id, String name, String normalizedName) {
+}
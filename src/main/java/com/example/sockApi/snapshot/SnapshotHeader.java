@@ -0,0 +1,94 @@
+package com.example.sockApi.snapshot;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Fixed 80 byte header of a snapshot file. The CRC32 covers everything after the header, the sizes let a reader
+ * check that the file was written completely before it trusts a single record. The shard the snapshot was taken
+ * from is kept as a length-prefixed UTF-8 name in the last 32 bytes.
+ */
+public record SnapshotHeader(int formatVersion, int schemaVersion, long createdAtMillis, int colorCount,
+                             long recordCount, long colorsBytes, int crc32, String shard) {
+
+    public static final int SIZE = 80;
+
+    public static final int MAX_SHARD_BYTES = 30;
+
+    public static final int RECORD_SIZE = 24;
+
+    public static final int FORMAT_VERSION = 2;
+
+    // the Flyway version the columns of a record correspond to
+    public static final int SCHEMA_VERSION = 4;
+
+    private static final byte[] MAGIC = "SOCKSNAP".getBytes(StandardCharsets.US_ASCII);
+
+    public long bodyBytes() {
+        return colorsBytes + recordCount * RECORD_SIZE;
+    }
+
+    public long fileBytes() {
+        return SIZE + bodyBytes();
+    }
+
+    static byte[] shardBytes(String shard) throws IOException {
+        byte[] bytes = shard.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > MAX_SHARD_BYTES) {
+            throw new IOException("Shard name is too long for a snapshot: " + shard);
+        }
+        return bytes;
+    }
+
+    void write(ByteBuffer buffer) throws IOException {
+        byte[] shardBytes = shardBytes(shard);
+        buffer.put(MAGIC)
+                .putInt(formatVersion)
+                .putInt(schemaVersion)
+                .putLong(createdAtMillis)
+                .putInt(colorCount)
+                .putLong(recordCount)
+                .putLong(colorsBytes)
+                .putInt(crc32)
+                .putShort((short) shardBytes.length)
+                .put(shardBytes)
+                .put(new byte[MAX_SHARD_BYTES - shardBytes.length]);
+    }
+
+    static SnapshotHeader read(ByteBuffer buffer) throws InvalidSnapshotException {
+        byte[] magic = new byte[MAGIC.length];
+        buffer.get(magic);
+        if (!Arrays.equals(magic, MAGIC)) {
+            throw new InvalidSnapshotException("not an inventory snapshot");
+        }
+        int formatVersion = buffer.getInt();
+        if (formatVersion != FORMAT_VERSION) {
+            throw new InvalidSnapshotException(String.format("format version %d is not supported, expected %d",
+                    formatVersion, FORMAT_VERSION));
+        }
+        int schemaVersion = buffer.getInt();
+        long createdAtMillis = buffer.getLong();
+        int colorCount = buffer.getInt();
+        long recordCount = buffer.getLong();
+        long colorsBytes = buffer.getLong();
+        int crc32 = buffer.getInt();
+        int shardLength = buffer.getShort();
+        if (shardLength < 0 || shardLength > MAX_SHARD_BYTES) {
+            throw new InvalidSnapshotException("header is corrupt");
+        }
+        byte[] shard = new byte[shardLength];
+        buffer.get(shard);
+        SnapshotHeader header = new SnapshotHeader(formatVersion, schemaVersion, createdAtMillis, colorCount,
+                recordCount, colorsBytes, crc32, new String(shard, StandardCharsets.UTF_8));
+        if (header.schemaVersion() != SCHEMA_VERSION) {
+            throw new InvalidSnapshotException(String.format("written for schema version %d, the database is at %d",
+                    header.schemaVersion(), SCHEMA_VERSION));
+        }
+        if (header.colorCount() < 0 || header.recordCount() < 0 || header.colorsBytes() < 0) {
+            throw new InvalidSnapshotException("header is corrupt");
+        }
+        return header;
+    }
+}
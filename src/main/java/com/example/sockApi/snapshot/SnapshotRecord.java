@@ -0,0 +1,4 @@
+package com.example.sockApi.snapshot;
+
+public record SnapshotRecord(long id, int warehouseId, int colorId, int cottonBasisPoints, int count) {
+}
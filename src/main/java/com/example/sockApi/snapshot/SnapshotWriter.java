@@ -0,0 +1,87 @@
+package com.example.sockApi.snapshot;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+public final class SnapshotWriter {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private SnapshotWriter() {
+    }
+
+    /**
+     * Writes the snapshot next to the target and moves it in place only after it was forced to disk,
+     * so readers see either the previous snapshot or the complete new one.
+     */
+    public static SnapshotHeader write(Path target, String shard, Collection<SnapshotColor> colors,
+                                       Iterator<SnapshotRecord> records) throws IOException {
+        // a name that does not fit the header fails before anything is written
+        SnapshotHeader.shardBytes(shard);
+        Path directory = target.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, target.getFileName().toString(), ".tmp");
+        try {
+            SnapshotHeader header;
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                channel.position(SnapshotHeader.SIZE);
+                CRC32 crc = new CRC32();
+                DataOutputStream body = new DataOutputStream(new BufferedOutputStream(
+                        new CheckedOutputStream(Channels.newOutputStream(channel), crc), BUFFER_SIZE));
+                for (SnapshotColor color : colors) {
+                    body.writeInt(color.id());
+                    writeString(body, color.name());
+                    writeString(body, color.normalizedName());
+                }
+                long colorsBytes = body.size();
+                long recordCount = 0;
+                while (records.hasNext()) {
+                    SnapshotRecord record = records.next();
+                    body.writeLong(record.id());
+                    body.writeInt(record.warehouseId());
+                    body.writeInt(record.colorId());
+                    body.writeInt(record.cottonBasisPoints());
+                    body.writeInt(record.count());
+                    recordCount++;
+                }
+                body.flush();
+
+                header = new SnapshotHeader(SnapshotHeader.FORMAT_VERSION, SnapshotHeader.SCHEMA_VERSION,
+                        System.currentTimeMillis(), colors.size(), recordCount, colorsBytes, (int) crc.getValue(), shard);
+                ByteBuffer headerBuffer = ByteBuffer.allocate(SnapshotHeader.SIZE);
+                header.write(headerBuffer);
+                headerBuffer.flip();
+                while (headerBuffer.hasRemaining()) {
+                    channel.write(headerBuffer, SnapshotHeader.SIZE - headerBuffer.remaining());
+                }
+                channel.force(true);
+            }
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            return header;
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    private static void writeString(DataOutputStream body, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IOException("Color name is too long for a snapshot: " + value);
+        }
+        body.writeShort(bytes.length);
+        body.write(bytes);
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.sockApi.utils;
+
+import java.util.Locale;
+
+public class ColorNameUtils {
+
+    public static String normalize(String color) {
+        return color.trim().toLowerCase(Locale.ROOT);
+    }
+
+}
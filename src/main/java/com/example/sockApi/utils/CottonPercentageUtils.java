@@ -0,0 +1,38 @@
+package com.example.sockApi.utils;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+public class CottonPercentageUtils {
+
+    public static final int MAX_BASIS_POINTS = 10_000;
+
+    public static boolean isValid(double cottonPercentage) {
+        return cottonPercentage >= 0 && cottonPercentage <= 100;
+    }
+
+    public static int toBasisPoints(double cottonPercentage) {
+        return toBasisPoints(cottonPercentage, RoundingMode.HALF_UP);
+    }
+
+    // range bounds round inwards (CEILING for a minimum, FLOOR for a maximum) so off-grid values keep their meaning
+    public static int toBasisPoints(double cottonPercentage, RoundingMode roundingMode) {
+        return BigDecimal.valueOf(cottonPercentage)
+                .setScale(2, roundingMode)
+                .movePointRight(2)
+                .intValueExact();
+    }
+
+    public static Integer toBasisPoints(Double cottonPercentage) {
+        return cottonPercentage == null ? null : toBasisPoints(cottonPercentage.doubleValue());
+    }
+
+    public static Integer toBasisPoints(Double cottonPercentage, RoundingMode roundingMode) {
+        return cottonPercentage == null ? null : toBasisPoints(cottonPercentage.doubleValue(), roundingMode);
+    }
+
+    public static double toPercentage(int basisPoints) {
+        return basisPoints / 100.0;
+    }
+
+}
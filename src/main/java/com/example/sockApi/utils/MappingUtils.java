@@ -2,26 +2,33 @@ package com.example.sockApi.utils;
 
 import com.example.sockApi.dto.SockDto;
 import com.example.sockApi.entity.Sock;
+import com.example.sockApi.service.ColorDictionary;
+import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Service;
 
 @Service
+@AllArgsConstructor
 public class MappingUtils {
 
+    private final ColorDictionary colorDictionary;
+
     public SockDto mapToSockDto(Sock sockEntity) {
         SockDto sockDto = new SockDto();
         sockDto.setId(sockEntity.getId());
-        sockDto.setColor(sockEntity.getColor());
-        sockDto.setCottonPercentage(sockEntity.getCottonPercentage());
+        sockDto.setColor(colorDictionary.nameOf(sockEntity.getColor().getId()));
+        sockDto.setCottonPercentage(CottonPercentageUtils.toPercentage(sockEntity.getCottonBasisPoints()));
         sockDto.setCount(sockEntity.getCount());
+        sockDto.setWarehouseId(sockEntity.getWarehouseId());
         return sockDto;
     }
 
     public Sock mapToSock(SockDto sockDto) {
         Sock sockEntity = new Sock();
         sockEntity.setId(sockDto.getId());
-        sockEntity.setColor(sockDto.getColor());
-        sockEntity.setCottonPercentage(sockDto.getCottonPercentage());
+        sockEntity.setColor(colorDictionary.getReference(colorDictionary.resolveId(sockDto.getColor())));
+        sockEntity.setCottonBasisPoints(CottonPercentageUtils.toBasisPoints(sockDto.getCottonPercentage()));
         sockEntity.setCount(sockDto.getCount());
+        sockEntity.setWarehouseId(sockDto.getWarehouseId());
         return sockEntity;
     }
 
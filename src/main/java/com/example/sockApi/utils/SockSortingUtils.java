@@ -1,24 +1,35 @@
 package com.example.sockApi.utils;
 
 import com.example.sockApi.dto.SockDto;
+import com.example.sockApi.entity.Sock;
 import com.example.sockApi.enums.SortBy;
+import com.example.sockApi.service.ColorDictionary;
 
 import java.util.Comparator;
-import java.util.EnumMap;
-import java.util.Map;
 
 public class SockSortingUtils {
-    private static final Map<SortBy, Comparator<SockDto>> SORTING_MAP = new EnumMap<>(SortBy.class);
 
-    static {
-        SORTING_MAP.put(SortBy.COTTON_PERCENTAGE_ASC, Comparator.comparing(SockDto::getCottonPercentage));
-        SORTING_MAP.put(SortBy.COLOR_ASC, Comparator.comparing(SockDto::getColor, String.CASE_INSENSITIVE_ORDER));
-        SORTING_MAP.put(SortBy.COTTON_PERCENTAGE_DESC, Comparator.comparing(SockDto::getCottonPercentage).reversed());
-        SORTING_MAP.put(SortBy.COLOR_DESC, Comparator.comparing(SockDto::getColor, String.CASE_INSENSITIVE_ORDER).reversed());
+    public static Comparator<Sock> getComparator(SortBy sortBy, ColorDictionary colorDictionary) {
+        Comparator<Sock> byColorRank = Comparator.comparingInt(sock -> colorDictionary.rankOf(sock.getColor().getId()));
+        return switch (sortBy) {
+            case COTTON_PERCENTAGE_ASC -> Comparator.comparingInt(Sock::getCottonBasisPoints);
+            case COLOR_ASC -> byColorRank;
+            case COTTON_PERCENTAGE_DESC -> Comparator.comparingInt(Sock::getCottonBasisPoints).reversed();
+            case COLOR_DESC -> byColorRank.reversed();
+        };
     }
 
-    public static Comparator<SockDto> getComparator(SortBy sortBy) {
-        return SORTING_MAP.get(sortBy);
+    public static Comparator<SockDto> getDtoComparator(SortBy sortBy, ColorDictionary colorDictionary) {
+        Comparator<SockDto> byColorRank = Comparator.comparingInt(sock -> colorDictionary.findId(sock.getColor())
+                .map(colorDictionary::rankOf)
+                .orElse(Integer.MAX_VALUE));
+        Comparator<SockDto> byCotton = Comparator.comparingInt(sock -> CottonPercentageUtils.toBasisPoints(sock.getCottonPercentage()));
+        return switch (sortBy) {
+            case COTTON_PERCENTAGE_ASC -> byCotton;
+            case COLOR_ASC -> byColorRank;
+            case COTTON_PERCENTAGE_DESC -> byCotton.reversed();
+            case COLOR_DESC -> byColorRank.reversed();
+        };
     }
 
 }
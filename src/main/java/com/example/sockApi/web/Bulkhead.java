@@ -0,0 +1,51 @@
+package com.example.sockApi.web;
+
+import com.example.sockApi.dto.BulkheadStatsDto;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+public class Bulkhead {
+
+    private final String name;
+
+    private final int maxConcurrent;
+
+    private final long maxWaitNanos;
+
+    private final Semaphore permits;
+
+    private final LongAdder accepted = new LongAdder();
+
+    private final LongAdder rejected = new LongAdder();
+
+    public Bulkhead(String name, int maxConcurrent, Duration maxWait) {
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.maxWaitNanos = maxWait.toNanos();
+        this.permits = new Semaphore(maxConcurrent, true);
+    }
+
+    public boolean tryEnter() throws InterruptedException {
+        boolean entered = maxWaitNanos <= 0
+                ? permits.tryAcquire()
+                : permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS);
+        (entered ? accepted : rejected).increment();
+        return entered;
+    }
+
+    public void exit() {
+        permits.release();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public BulkheadStatsDto stats() {
+        return new BulkheadStatsDto(name, maxConcurrent, maxConcurrent - permits.availablePermits(),
+                accepted.sum(), rejected.sum());
+    }
+}
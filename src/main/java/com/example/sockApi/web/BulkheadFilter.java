@@ -0,0 +1,80 @@
+package com.example.sockApi.web;
+
+import com.example.sockApi.config.BulkheadProperties;
+import com.example.sockApi.datasource.DataSourceLane;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.List;
+
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+@Slf4j
+public class BulkheadFilter extends OncePerRequestFilter {
+
+    private static final String SOCKS_PATH = "/api/socks";
+
+    private static final String BATCH_PATH = SOCKS_PATH + "/batch";
+
+    private final Bulkhead batchBulkhead;
+
+    private final Bulkhead interactiveBulkhead;
+
+    public BulkheadFilter(BulkheadProperties properties) {
+        this.batchBulkhead = new Bulkhead("batch",
+                properties.getBatch().getMaxConcurrent(), properties.getBatch().getMaxWait());
+        this.interactiveBulkhead = new Bulkhead("interactive",
+                properties.getInteractive().getMaxConcurrent(), properties.getInteractive().getMaxWait());
+    }
+
+    public List<Bulkhead> getBulkheads() {
+        return List.of(interactiveBulkhead, batchBulkhead);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(SOCKS_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean batch = request.getRequestURI().startsWith(BATCH_PATH);
+        Bulkhead bulkhead = batch ? batchBulkhead : interactiveBulkhead;
+
+        boolean entered;
+        try {
+            entered = bulkhead.tryEnter();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            entered = false;
+        }
+        if (!entered) {
+            log.warn("Request {} {} rejected - {} bulkhead is full", request.getMethod(), request.getRequestURI(),
+                    bulkhead.getName());
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.getWriter().write(String.format("Service is overloaded - %s capacity is exhausted, retry later",
+                    bulkhead.getName()));
+            return;
+        }
+
+        DataSourceLane.set(batch ? DataSourceLane.BATCH : DataSourceLane.INTERACTIVE);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            DataSourceLane.clear();
+            bulkhead.exit();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.sockApi.web;
+
+import java.util.Optional;
+
+public final class ClientContext {
+
+    private static final ThreadLocal<String> CLIENT_ID = new ThreadLocal<>();
+
+    private ClientContext() {
+    }
+
+    public static Optional<String> currentClientId() {
+        return Optional.ofNullable(CLIENT_ID.get());
+    }
+
+    public static void set(String clientId) {
+        CLIENT_ID.set(clientId);
+    }
+
+    public static void clear() {
+        CLIENT_ID.remove();
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.sockApi.web;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ClientIdFilter extends OncePerRequestFilter {
+
+    public static final String CLIENT_ID_HEADER = "X-Client-Id";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String clientId = request.getHeader(CLIENT_ID_HEADER);
+        ClientContext.set(StringUtils.hasText(clientId) ? clientId : request.getRemoteAddr());
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ClientContext.clear();
+        }
+    }
+}
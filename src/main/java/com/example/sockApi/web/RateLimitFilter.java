@@ -0,0 +1,74 @@
+package com.example.sockApi.web;
+
+import com.example.sockApi.config.RateLimitProperties;
+import com.example.sockApi.enums.EndpointGroup;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+@AllArgsConstructor
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final String SOCKS_PATH = "/api/socks";
+
+    private static final String BATCH_PATH = SOCKS_PATH + "/batch";
+
+    private static final String SEARCH_PATH = SOCKS_PATH + "/search";
+
+    private final RateLimitProperties properties;
+
+    private final RateLimiter rateLimiter;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || !request.getRequestURI().startsWith(SOCKS_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        EndpointGroup group = endpointGroup(request);
+        // X-Client-Id is chosen by the caller, so limits are keyed on who the caller actually is
+        String clientId = request.getUserPrincipal() != null ? request.getUserPrincipal().getName() : request.getRemoteAddr();
+
+        long waitNanos = rateLimiter.tryAcquire(group, clientId);
+        if (waitNanos > 0) {
+            long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L));
+            log.warn("Request {} {} from client {} rejected - {} rate limit exceeded",
+                    request.getMethod(), request.getRequestURI(), clientId, group);
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+            response.getWriter().write(String.format("Too many requests - %s rate limit exceeded, retry in %d s",
+                    group, retryAfterSeconds));
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private static EndpointGroup endpointGroup(HttpServletRequest request) {
+        if (request.getRequestURI().startsWith(BATCH_PATH)) {
+            return EndpointGroup.BATCH;
+        }
+        if (request.getRequestURI().startsWith(SEARCH_PATH)) {
+            return EndpointGroup.READ;
+        }
+        HttpMethod method = HttpMethod.resolve(request.getMethod());
+        return method == HttpMethod.GET || method == HttpMethod.HEAD ? EndpointGroup.READ : EndpointGroup.WRITE;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.sockApi.web;
+
+import com.example.sockApi.config.RateLimitProperties;
+import com.example.sockApi.enums.EndpointGroup;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+public class RateLimiter {
+
+    private static final String OVERFLOW_CLIENT = "*";
+
+    private final RateLimitProperties properties;
+
+    private final Map<EndpointGroup, TokenBucket> globalBuckets = new EnumMap<>(EndpointGroup.class);
+
+    private final Map<EndpointGroup, Map<String, TokenBucket>> clientBuckets = new EnumMap<>(EndpointGroup.class);
+
+    public RateLimiter(RateLimitProperties properties) {
+        this.properties = properties;
+        for (EndpointGroup group : EndpointGroup.values()) {
+            RateLimitProperties.Limit global = properties.forGroup(group).getGlobal();
+            globalBuckets.put(group, new TokenBucket(global.getCapacity(), global.getRefillPerSecond()));
+            clientBuckets.put(group, new ConcurrentHashMap<>());
+        }
+    }
+
+    public long tryAcquire(EndpointGroup group, String clientId) {
+        long now = System.nanoTime();
+        TokenBucket clientBucket = clientBucket(group, clientId, now);
+        long clientWait = clientBucket.tryAcquire(now);
+        if (clientWait > 0) {
+            return clientWait;
+        }
+        long globalWait = globalBuckets.get(group).tryAcquire(now);
+        if (globalWait > 0) {
+            // the request is rejected, so it does not count against the client
+            clientBucket.release();
+        }
+        return globalWait;
+    }
+
+    private TokenBucket clientBucket(EndpointGroup group, String clientId, long now) {
+        Map<String, TokenBucket> buckets = clientBuckets.get(group);
+        TokenBucket bucket = buckets.get(clientId);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= properties.getMaxClients()) {
+            buckets.values().removeIf(idle -> idle.isFull(now));
+            if (buckets.size() >= properties.getMaxClients()) {
+                clientId = OVERFLOW_CLIENT;
+            }
+        }
+        return buckets.computeIfAbsent(clientId, id -> {
+            RateLimitProperties.Limit perClient = properties.forGroup(group).getPerClient();
+            return new TokenBucket(perClient.getCapacity(), perClient.getRefillPerSecond());
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${sock.rate-limit.eviction-interval:PT1M}")
+    public void evictIdleClients() {
+        long now = System.nanoTime();
+        clientBuckets.values().forEach(buckets -> buckets.values().removeIf(bucket -> bucket.isFull(now)));
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.sockApi.web;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket kept as a single "theoretical arrival time" (GCRA form), so acquiring a token is one CAS.
+ */
+public class TokenBucket {
+
+    private final long intervalNanos;
+
+    private final long burstNanos;
+
+    private final AtomicLong theoreticalArrival = new AtomicLong(Long.MIN_VALUE);
+
+    public TokenBucket(long capacity, double refillPerSecond) {
+        this.intervalNanos = Math.max(1, (long) (1_000_000_000L / refillPerSecond));
+        this.burstNanos = capacity * intervalNanos;
+    }
+
+    /**
+     * @return 0 if a token was taken, otherwise the nanoseconds until one becomes available
+     */
+    public long tryAcquire(long nowNanos) {
+        while (true) {
+            long arrival = theoreticalArrival.get();
+            long nextArrival = Math.max(arrival, nowNanos) + intervalNanos;
+            long waitNanos = nextArrival - nowNanos - burstNanos;
+            if (waitNanos > 0) {
+                return waitNanos;
+            }
+            if (theoreticalArrival.compareAndSet(arrival, nextArrival)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Gives back a token taken by {@link #tryAcquire(long)} for a request that was rejected anyway.
+     */
+    public void release() {
+        theoreticalArrival.addAndGet(-intervalNanos);
+    }
+
+    public boolean isFull(long nowNanos) {
+        return theoreticalArrival.get() <= nowNanos;
+    }
+}
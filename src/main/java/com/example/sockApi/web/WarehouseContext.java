@@ -0,0 +1,33 @@
+package com.example.sockApi.web;
+
+public final class WarehouseContext {
+
+    private static final ThreadLocal<Integer> WAREHOUSE_ID = new ThreadLocal<>();
+
+    // sock.sharding.default-warehouse, used by requests without X-Warehouse-Id and by work outside a request
+    private static volatile int defaultWarehouseId = 1;
+
+    private WarehouseContext() {
+    }
+
+    public static int currentWarehouseId() {
+        Integer warehouseId = WAREHOUSE_ID.get();
+        return warehouseId != null ? warehouseId : defaultWarehouseId;
+    }
+
+    public static int defaultWarehouseId() {
+        return defaultWarehouseId;
+    }
+
+    public static void setDefaultWarehouseId(int warehouseId) {
+        defaultWarehouseId = warehouseId;
+    }
+
+    public static void set(int warehouseId) {
+        WAREHOUSE_ID.set(warehouseId);
+    }
+
+    public static void clear() {
+        WAREHOUSE_ID.remove();
+    }
+}
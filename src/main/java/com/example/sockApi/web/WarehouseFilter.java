@@ -0,0 +1,52 @@
+package com.example.sockApi.web;
+
+import com.example.sockApi.config.ShardingProperties;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@AllArgsConstructor
+@Slf4j
+public class WarehouseFilter extends OncePerRequestFilter {
+
+    public static final String WAREHOUSE_ID_HEADER = "X-Warehouse-Id";
+
+    private final ShardingProperties properties;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String header = request.getHeader(WAREHOUSE_ID_HEADER);
+        int warehouseId = properties.getDefaultWarehouse();
+        if (StringUtils.hasText(header)) {
+            try {
+                warehouseId = Integer.parseInt(header.trim());
+            } catch (NumberFormatException e) {
+                log.warn("Request {} {} rejected - invalid {} header: {}",
+                        request.getMethod(), request.getRequestURI(), WAREHOUSE_ID_HEADER, header);
+                response.setStatus(HttpStatus.BAD_REQUEST.value());
+                response.getWriter().write(String.format("Invalid %s header: %s", WAREHOUSE_ID_HEADER, header));
+                return;
+            }
+        }
+        WarehouseContext.set(warehouseId);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            WarehouseContext.clear();
+        }
+    }
+}
@@ -0,0 +1,7 @@
+CREATE TABLE IF NOT EXISTS socks
+(
+    id                BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    color             VARCHAR(255)     NOT NULL,
+    cotton_percentage DOUBLE PRECISION NOT NULL,
+    count             INTEGER          NOT NULL
+);
@@ -0,0 +1,33 @@
+CREATE TABLE colors
+(
+    id              INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name            VARCHAR(255) NOT NULL,
+    normalized_name VARCHAR(255) NOT NULL,
+    CONSTRAINT uk_colors_normalized_name UNIQUE (normalized_name)
+);
+
+INSERT INTO colors (name, normalized_name)
+SELECT MIN(TRIM(color)), LOWER(TRIM(color))
+FROM socks
+GROUP BY LOWER(TRIM(color));
+
+ALTER TABLE socks ADD COLUMN color_id INTEGER;
+
+UPDATE socks
+SET color_id = (SELECT c.id FROM colors c WHERE c.normalized_name = LOWER(TRIM(socks.color)));
+
+-- "Red" and "red" rows of the same cotton percentage become one row
+UPDATE socks
+SET count = (SELECT SUM(d.count)
+             FROM socks d
+             WHERE d.color_id = socks.color_id
+               AND d.cotton_percentage = socks.cotton_percentage)
+WHERE id IN (SELECT MIN(id) FROM socks GROUP BY color_id, cotton_percentage);
+
+DELETE FROM socks
+WHERE id NOT IN (SELECT MIN(id) FROM socks GROUP BY color_id, cotton_percentage);
+
+ALTER TABLE socks ALTER COLUMN color_id SET NOT NULL;
+ALTER TABLE socks ADD CONSTRAINT fk_socks_color FOREIGN KEY (color_id) REFERENCES colors (id);
+ALTER TABLE socks ADD CONSTRAINT uk_socks_color_cotton UNIQUE (color_id, cotton_percentage);
+ALTER TABLE socks DROP COLUMN color;
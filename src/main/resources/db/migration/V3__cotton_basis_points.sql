@@ -0,0 +1,24 @@
+ALTER TABLE socks ADD COLUMN cotton_basis_points INTEGER;
+
+-- rounding policy: half up to 0.01 percentage point, the same as CottonPercentageUtils. The text form of a double is
+-- its shortest decimal, as in BigDecimal.valueOf, and ROUND on NUMERIC rounds half up; 20 decimals hold that text exactly
+UPDATE socks
+SET cotton_basis_points = CAST(ROUND(CAST(CAST(cotton_percentage AS VARCHAR) AS NUMERIC(40, 20)) * 100) AS INTEGER);
+
+-- 56 and 56.0000001 were separate rows, now they share a key
+UPDATE socks
+SET count = (SELECT SUM(d.count)
+             FROM socks d
+             WHERE d.color_id = socks.color_id
+               AND d.cotton_basis_points = socks.cotton_basis_points)
+WHERE id IN (SELECT MIN(id) FROM socks GROUP BY color_id, cotton_basis_points);
+
+DELETE FROM socks
+WHERE id NOT IN (SELECT MIN(id) FROM socks GROUP BY color_id, cotton_basis_points);
+
+ALTER TABLE socks ALTER COLUMN cotton_basis_points SET NOT NULL;
+ALTER TABLE socks DROP CONSTRAINT uk_socks_color_cotton;
+ALTER TABLE socks DROP COLUMN cotton_percentage;
+ALTER TABLE socks ADD CONSTRAINT uk_socks_color_cotton UNIQUE (color_id, cotton_basis_points);
+ALTER TABLE socks ADD CONSTRAINT ck_socks_cotton_range CHECK (cotton_basis_points BETWEEN 0 AND 10000);
+CREATE INDEX idx_socks_cotton_basis_points ON socks (cotton_basis_points);
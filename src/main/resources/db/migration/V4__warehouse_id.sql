@@ -0,0 +1,6 @@
+ALTER TABLE socks ADD COLUMN warehouse_id INTEGER NOT NULL DEFAULT 1;
+
+-- the same color and cotton percentage is a separate row in every warehouse
+ALTER TABLE socks DROP CONSTRAINT uk_socks_color_cotton;
+ALTER TABLE socks ADD CONSTRAINT uk_socks_warehouse_color_cotton UNIQUE (warehouse_id, color_id, cotton_basis_points);
+ALTER TABLE socks ALTER COLUMN warehouse_id DROP DEFAULT;
@@ -0,0 +1,16 @@
+package com.example.sockApi.reactive;
+
+import com.example.sockApi.config.ChangeFeedProperties;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+
+@SpringBootApplication
+@EnableConfigurationProperties(ChangeFeedProperties.class)
+public class ReactiveSockApiApplication {
+
+    public static void main(String[] args) {
+        SpringApplication.run(ReactiveSockApiApplication.class, args);
+    }
+
+}
@@ -0,0 +1,94 @@
+package com.example.sockApi.reactive.controller;
+
+import com.example.sockApi.dto.SockDto;
+import com.example.sockApi.enums.SortBy;
+import com.example.sockApi.reactive.service.ReactiveChangeFeed;
+import com.example.sockApi.reactive.service.ReactiveSockService;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/socks")
+@AllArgsConstructor
+@Slf4j
+public class ReactiveSockController {
+
+    private final ReactiveSockService sockService;
+
+    private final ReactiveChangeFeed changeFeed;
+
+    @PostMapping("/income")
+    public Mono<ResponseEntity<SockDto>> incomeSocks(@RequestParam String color,
+                                                     @RequestParam double cottonPercentage,
+                                                     @RequestParam int count) {
+        log.info("Request to income socks. Color: {}, cotton percentage: {}, count: {}",
+                color, cottonPercentage, count);
+        return sockService.addSocks(color, cottonPercentage, count)
+                .map(sock -> new ResponseEntity<>(sock, HttpStatus.CREATED));
+    }
+
+    @PostMapping("/outcome")
+    public Mono<ResponseEntity<SockDto>> outcomeSocks(@RequestParam String color,
+                                                      @RequestParam double cottonPercentage,
+                                                      @RequestParam int count) {
+        log.info("Request to remove socks. Color: {}, cotton percentage: {}, count: {}", color, cottonPercentage, count);
+        return sockService.removeSocks(color, cottonPercentage, count)
+                .map(sock -> new ResponseEntity<>(sock, HttpStatus.OK));
+    }
+
+    @PutMapping("/{id}")
+    public Mono<ResponseEntity<SockDto>> updateSocks(@PathVariable Long id,
+                                                     @RequestParam String color,
+                                                     @RequestParam double cottonPercentage,
+                                                     @RequestParam int count) {
+        log.info("Request to update the socks. Id: {}, new color: {}, new cotton percentage: {}, new count: {}",
+                id, color, cottonPercentage, count);
+        return sockService.updateSocks(id, color, cottonPercentage, count)
+                .map(sock -> new ResponseEntity<>(sock, HttpStatus.OK));
+    }
+
+    @GetMapping
+    public Mono<ResponseEntity<List<SockDto>>> getSocks(
+            @RequestParam(required = false) String color,
+            @RequestParam(required = false) Double exactCottonPercentage,
+            @RequestParam(required = false) Double minCottonPercentage,
+            @RequestParam(required = false) Double maxCottonPercentage,
+            @RequestParam(required = false) SortBy sortBy) {
+        log.info("Request for socks. Color: {}, exact percentage of cotton: {}," +
+                        "minimum percentage of cotton: {}, maximum percentage of cotton: {}, sorting: {}",
+                color, exactCottonPercentage, minCottonPercentage, maxCottonPercentage, sortBy);
+        return sockService.getSocks(color, exactCottonPercentage, minCottonPercentage, maxCottonPercentage, sortBy)
+                .collectList()
+                .map(socks -> new ResponseEntity<>(socks, HttpStatus.OK));
+    }
+
+    @GetMapping("/count")
+    public Mono<ResponseEntity<Integer>> getSocksCount(
+            @RequestParam(required = false) String color,
+            @RequestParam(required = false) Double exactCottonPercentage,
+            @RequestParam(required = false) Double minCottonPercentage,
+            @RequestParam(required = false) Double maxCottonPercentage) {
+        log.info("Request for count of socks. Color: {}, exact percentage of cotton: {}," +
+                        "minimum percentage of cotton: {}, maximum percentage of cotton: {}",
+                color, exactCottonPercentage, minCottonPercentage, maxCottonPercentage);
+        return sockService.getSocksCount(color, exactCottonPercentage, minCottonPercentage, maxCottonPercentage)
+                .map(count -> new ResponseEntity<>(count, HttpStatus.OK));
+    }
+
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> streamChanges(@RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+                                                       @RequestParam(required = false) Long sinceVersion) {
+        Long lastVersion = lastEventId != null ? lastEventId : sinceVersion;
+        log.info("Request for sock changes since version {}", lastVersion);
+        return changeFeed.subscribe(lastVersion);
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.sockApi.reactive.repository;
+
+import com.example.sockApi.filter.SockFilter;
+import io.r2dbc.spi.Row;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.StringJoiner;
+
+@Repository
+public class ReactiveSockRepository {
+
+    private static final String FROM_SOCKS = " FROM socks s JOIN colors c ON c.id = s.color_id";
+
+    private final DatabaseClient databaseClient;
+
+    // the non-blocking variant is not sharded and keeps all stock in the default warehouse
+    private final int warehouseId;
+
+    public ReactiveSockRepository(DatabaseClient databaseClient,
+                                  @Value("${sock.sharding.default-warehouse:1}") int warehouseId) {
+        this.databaseClient = databaseClient;
+        this.warehouseId = warehouseId;
+    }
+
+    public record SockRow(Long id, String color, String normalizedColor, int cottonBasisPoints, int count) {
+    }
+
+    public record StockRow(Long id, Integer colorId, int cottonBasisPoints, int count) {
+    }
+
+    public record ColorRow(Integer id, String name) {
+    }
+
+    public Flux<SockRow> findAll(SockFilter filter) {
+        String sql = "SELECT s.id, c.name, c.normalized_name, s.cotton_basis_points, s.count" + FROM_SOCKS + where(filter);
+        return bind(databaseClient.sql(sql), filter)
+                .map(row -> new SockRow(row.get("id", Long.class), row.get("name", String.class),
+                        row.get("normalized_name", String.class), intValue(row, "cotton_basis_points"), intValue(row, "count")))
+                .all();
+    }
+
+    public Mono<Long> sumCount(SockFilter filter) {
+        String sql = "SELECT COALESCE(SUM(s.count), 0) AS total" + FROM_SOCKS + where(filter);
+        return bind(databaseClient.sql(sql), filter)
+                .map(row -> ((Number) row.get("total")).longValue())
+                .one();
+    }
+
+    public Mono<ColorRow> findColor(String normalizedName) {
+        return databaseClient.sql("SELECT id, name FROM colors WHERE normalized_name = :normalizedName")
+                .bind("normalizedName", normalizedName)
+                .map(row -> new ColorRow(row.get("id", Integer.class), row.get("name", String.class)))
+                .one();
+    }
+
+    public Mono<String> findColorName(Integer colorId) {
+        return databaseClient.sql("SELECT name FROM colors WHERE id = :id")
+                .bind("id", colorId)
+                .map(row -> row.get("name", String.class))
+                .one();
+    }
+
+    public Mono<Void> insertColorIfAbsent(String name, String normalizedName) {
+        return databaseClient.sql("INSERT INTO colors (name, normalized_name) VALUES (:name, :normalizedName) ON CONFLICT DO NOTHING")
+                .bind("name", name)
+                .bind("normalizedName", normalizedName)
+                .then();
+    }
+
+    public Mono<StockRow> findForUpdate(Integer colorId, int cottonBasisPoints) {
+        return databaseClient.sql("SELECT id, color_id, cotton_basis_points, count FROM socks "
+                        + "WHERE warehouse_id = :warehouseId AND color_id = :colorId "
+                        + "AND cotton_basis_points = :cottonBasisPoints FOR UPDATE")
+                .bind("warehouseId", warehouseId)
+                .bind("colorId", colorId)
+                .bind("cottonBasisPoints", cottonBasisPoints)
+                .map(ReactiveSockRepository::mapStock)
+                .one();
+    }
+
+    public Mono<StockRow> findByIdForUpdate(Long id) {
+        return databaseClient.sql("SELECT id, color_id, cotton_basis_points, count FROM socks "
+                        + "WHERE id = :id AND warehouse_id = :warehouseId FOR UPDATE")
+                .bind("id", id)
+                .bind("warehouseId", warehouseId)
+                .map(ReactiveSockRepository::mapStock)
+                .one();
+    }
+
+    public Mono<Long> insert(Integer colorId, int cottonBasisPoints, int count) {
+        return databaseClient.sql("INSERT INTO socks (warehouse_id, color_id, cotton_basis_points, count) "
+                        + "VALUES (:warehouseId, :colorId, :cottonBasisPoints, :count)")
+                .bind("warehouseId", warehouseId)
+                .bind("colorId", colorId)
+                .bind("cottonBasisPoints", cottonBasisPoints)
+                .bind("count", count)
+                .filter(statement -> statement.returnGeneratedValues("id"))
+                .map(row -> row.get("id", Long.class))
+                .one();
+    }
+
+    public Mono<Void> updateCount(Long id, int count) {
+        return databaseClient.sql("UPDATE socks SET count = :count WHERE id = :id")
+                .bind("count", count)
+                .bind("id", id)
+                .then();
+    }
+
+    public Mono<Void> update(Long id, Integer colorId, int cottonBasisPoints, int count) {
+        return databaseClient.sql("UPDATE socks SET color_id = :colorId, cotton_basis_points = :cottonBasisPoints, "
+                        + "count = :count WHERE id = :id")
+                .bind("colorId", colorId)
+                .bind("cottonBasisPoints", cottonBasisPoints)
+                .bind("count", count)
+                .bind("id", id)
+                .then();
+    }
+
+    private static String where(SockFilter filter) {
+        StringJoiner conditions = new StringJoiner(" AND ", " WHERE ", "").setEmptyValue("");
+        if (filter.normalizedColor() != null) {
+            conditions.add("c.normalized_name = :color");
+        }
+        if (filter.exactCottonBasisPoints() != null) {
+            conditions.add("s.cotton_basis_points = :exactCottonBasisPoints");
+        }
+        if (filter.minCottonBasisPoints() != null) {
+            conditions.add("s.cotton_basis_points >= :minCottonBasisPoints");
+        }
+        if (filter.maxCottonBasisPoints() != null) {
+            conditions.add("s.cotton_basis_points <= :maxCottonBasisPoints");
+        }
+        return conditions.toString();
+    }
+
+    private static DatabaseClient.GenericExecuteSpec bind(DatabaseClient.GenericExecuteSpec spec, SockFilter filter) {
+        if (filter.normalizedColor() != null) {
+            spec = spec.bind("color", filter.normalizedColor());
+        }
+        if (filter.exactCottonBasisPoints() != null) {
+            spec = spec.bind("exactCottonBasisPoints", filter.exactCottonBasisPoints());
+        }
+        if (filter.minCottonBasisPoints() != null) {
+            spec = spec.bind("minCottonBasisPoints", filter.minCottonBasisPoints());
+        }
+        if (filter.maxCottonBasisPoints() != null) {
+            spec = spec.bind("maxCottonBasisPoints", filter.maxCottonBasisPoints());
+        }
+        return spec;
+    }
+
+    private static StockRow mapStock(Row row) {
+        return new StockRow(row.get("id", Long.class), row.get("color_id", Integer.class),
+                intValue(row, "cotton_basis_points"), intValue(row, "count"));
+    }
+
+    private static int intValue(Row row, String column) {
+        return ((Number) row.get(column)).intValue();
+    }
+}
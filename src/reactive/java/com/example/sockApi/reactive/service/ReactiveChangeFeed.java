@@ -0,0 +1,74 @@
+package com.example.sockApi.reactive.service;
+
+import com.example.sockApi.config.ChangeFeedProperties;
+import com.example.sockApi.dto.SockChangeDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Service;
+import reactor.core.Exceptions;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+@Service
+@Slf4j
+public class ReactiveChangeFeed {
+
+    private static final String CHANGE_EVENT = "sock-change";
+
+    private static final String RESET_EVENT = "reset";
+
+    private final ChangeFeedProperties properties;
+
+    private final Sinks.Many<SockChangeDto> sink;
+
+    private long version;
+
+    public ReactiveChangeFeed(ChangeFeedProperties properties) {
+        this.properties = properties;
+        this.sink = Sinks.many().replay().limit(properties.getReplayBufferSize());
+    }
+
+    public synchronized void publish(Long id, String color, Double cottonPercentage, Integer oldCount, Integer newCount) {
+        sink.emitNext(new SockChangeDto(++version, id, color, cottonPercentage, oldCount, newCount),
+                Sinks.EmitFailureHandler.FAIL_FAST);
+    }
+
+    public Flux<ServerSentEvent<Object>> subscribe(Long lastVersion) {
+        long currentVersion;
+        boolean replayable;
+        synchronized (this) {
+            currentVersion = version;
+            replayable = lastVersion != null
+                    && lastVersion <= currentVersion
+                    && lastVersion + 1 >= Math.max(1, currentVersion - properties.getReplayBufferSize() + 1)
+                    && currentVersion - lastVersion <= properties.getSubscriberQueueSize();
+        }
+        long from = replayable ? lastVersion : currentVersion;
+
+        Flux<ServerSentEvent<Object>> events = sink.asFlux()
+                .filter(change -> change.getVersion() > from)
+                .onBackpressureBuffer(properties.getSubscriberQueueSize(), BufferOverflowStrategy.ERROR)
+                .map(change -> ServerSentEvent.<Object>builder(change)
+                        .id(String.valueOf(change.getVersion()))
+                        .event(CHANGE_EVENT)
+                        .build());
+        if (lastVersion != null && !replayable) {
+            events = events.startWith(ServerSentEvent.<Object>builder(currentVersion)
+                    .id(String.valueOf(currentVersion))
+                    .event(RESET_EVENT)
+                    .build());
+        }
+        log.info("Change feed subscriber connected from version {}", lastVersion);
+
+        // the comment makes the server commit the response headers before the first change arrives
+        return events
+                .startWith(ServerSentEvent.<Object>builder().comment("connected").build())
+                .take(properties.getEmitterTimeout())
+                .onErrorResume(Exceptions::isOverflow, error -> {
+                    log.warn("Change feed subscriber dropped - it is more than {} changes behind",
+                            properties.getSubscriberQueueSize());
+                    return Flux.empty();
+                });
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.sockApi.reactive.service;
+
+import com.example.sockApi.dto.SockDto;
+import com.example.sockApi.enums.SortBy;
+import com.example.sockApi.exception.BusinessException;
+import com.example.sockApi.filter.SockFilter;
+import com.example.sockApi.reactive.repository.ReactiveSockRepository;
+import com.example.sockApi.reactive.repository.ReactiveSockRepository.ColorRow;
+import com.example.sockApi.reactive.repository.ReactiveSockRepository.SockRow;
+import com.example.sockApi.utils.ColorNameUtils;
+import com.example.sockApi.utils.CottonPercentageUtils;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Comparator;
+
+@Service
+@AllArgsConstructor
+@Slf4j
+public class ReactiveSockService {
+
+    private static final Comparator<SockRow> BY_COLOR = Comparator.comparing(SockRow::normalizedColor)
+            .thenComparing(SockRow::color);
+
+    private final ReactiveSockRepository sockRepository;
+
+    private final TransactionalOperator transactionalOperator;
+
+    private final ReactiveChangeFeed changeFeed;
+
+    private record SockChange(Long id, String color, int cottonBasisPoints, int oldCount, int newCount) {
+    }
+
+    private record UpdatedSock(SockChange previousKey, SockChange change) {
+    }
+
+    private static <T> Mono<T> businessError(String errorMessage) {
+        log.error(errorMessage);
+        return Mono.error(new BusinessException(errorMessage));
+    }
+
+    private static Comparator<SockRow> getComparator(SortBy sortBy) {
+        return switch (sortBy) {
+            case COTTON_PERCENTAGE_ASC -> Comparator.comparingInt(SockRow::cottonBasisPoints);
+            case COLOR_ASC -> BY_COLOR;
+            case COTTON_PERCENTAGE_DESC -> Comparator.comparingInt(SockRow::cottonBasisPoints).reversed();
+            case COLOR_DESC -> BY_COLOR.reversed();
+        };
+    }
+
+    private static SockDto mapToSockDto(SockRow sock) {
+        return new SockDto(sock.id(), sock.color(), CottonPercentageUtils.toPercentage(sock.cottonBasisPoints()), sock.count());
+    }
+
+    private SockDto publish(SockChange change) {
+        double cottonPercentage = CottonPercentageUtils.toPercentage(change.cottonBasisPoints());
+        changeFeed.publish(change.id(), change.color(), cottonPercentage, change.oldCount(), change.newCount());
+        return new SockDto(change.id(), change.color(), cottonPercentage, change.newCount());
+    }
+
+    private Mono<ColorRow> resolveColor(String color) {
+        String normalizedName = ColorNameUtils.normalize(color);
+        return sockRepository.findColor(normalizedName)
+                .switchIfEmpty(Mono.defer(() -> sockRepository.insertColorIfAbsent(color.trim(), normalizedName)
+                        .then(sockRepository.findColor(normalizedName))));
+    }
+
+    public Mono<SockDto> addSocks(String color, double cottonPercentage, int count) {
+        if (!CottonPercentageUtils.isValid(cottonPercentage)) {
+            return businessError(String.format("Socks income error - cotton percentage should be 0-100 (passed value is %f)",
+                    cottonPercentage));
+        }
+
+        int cottonBasisPoints = CottonPercentageUtils.toBasisPoints(cottonPercentage);
+        return resolveColor(color)
+                .flatMap(knownColor -> sockRepository.findForUpdate(knownColor.id(), cottonBasisPoints)
+                        .flatMap(stock -> sockRepository.updateCount(stock.id(), stock.count() + count)
+                                .thenReturn(new SockChange(stock.id(), knownColor.name(), cottonBasisPoints,
+                                        stock.count(), stock.count() + count)))
+                        .switchIfEmpty(Mono.defer(() -> sockRepository.insert(knownColor.id(), cottonBasisPoints, count)
+                                .map(id -> new SockChange(id, knownColor.name(), cottonBasisPoints, 0, count)))))
+                .as(transactionalOperator::transactional)
+                .map(this::publish);
+    }
+
+    public Mono<SockDto> removeSocks(String color, double cottonPercentage, int count) {
+        int cottonBasisPoints = CottonPercentageUtils.toBasisPoints(cottonPercentage);
+        return sockRepository.findColor(ColorNameUtils.normalize(color))
+                .flatMap(knownColor -> sockRepository.findForUpdate(knownColor.id(), cottonBasisPoints)
+                        .filter(stock -> stock.count() >= count)
+                        .flatMap(stock -> sockRepository.updateCount(stock.id(), stock.count() - count)
+                                .thenReturn(new SockChange(stock.id(), knownColor.name(), cottonBasisPoints,
+                                        stock.count(), stock.count() - count))))
+                .switchIfEmpty(Mono.defer(() -> businessError(String.format(
+                        "Sock outcome error - the required socks are not in stock (color: %s, cotton percentage: %f, quantity: %d)",
+                        color, cottonPercentage, count))))
+                .as(transactionalOperator::transactional)
+                .map(this::publish);
+    }
+
+    public Mono<SockDto> updateSocks(Long id, String color, double cottonPercentage, int count) {
+        if (!CottonPercentageUtils.isValid(cottonPercentage)) {
+            return businessError(String.format("Update error - cotton percentage should be 0-100 (passed value is %f)",
+                    cottonPercentage));
+        }
+
+        int cottonBasisPoints = CottonPercentageUtils.toBasisPoints(cottonPercentage);
+        return sockRepository.findByIdForUpdate(id)
+                .switchIfEmpty(Mono.defer(() -> businessError(String.format("Update error - missing items with the passed Id: %d", id))))
+                .flatMap(stock -> resolveColor(color)
+                        .flatMap(knownColor -> sockRepository.update(id, knownColor.id(), cottonBasisPoints, count)
+                                .then(Mono.defer(() -> {
+                                    if (stock.colorId().equals(knownColor.id()) && stock.cottonBasisPoints() == cottonBasisPoints) {
+                                        return Mono.just(new UpdatedSock(null,
+                                                new SockChange(id, knownColor.name(), cottonBasisPoints, stock.count(), count)));
+                                    }
+                                    return sockRepository.findColorName(stock.colorId())
+                                            .map(previousColor -> new UpdatedSock(
+                                                    new SockChange(id, previousColor, stock.cottonBasisPoints(), stock.count(), 0),
+                                                    new SockChange(id, knownColor.name(), cottonBasisPoints, 0, count)));
+                                }))))
+                .as(transactionalOperator::transactional)
+                .map(updated -> {
+                    if (updated.previousKey() != null) {
+                        publish(updated.previousKey());
+                    }
+                    return publish(updated.change());
+                });
+    }
+
+    public Flux<SockDto> getSocks(String color, Double exactCottonPercentage, Double minCottonPercentage,
+                                  Double maxCottonPercentage, SortBy sortBy) {
+        Flux<SockRow> socks = sockRepository.findAll(
+                SockFilter.of(color, exactCottonPercentage, minCottonPercentage, maxCottonPercentage));
+        if (sortBy != null) {
+            socks = socks.sort(getComparator(sortBy));
+        }
+        return socks.map(ReactiveSockService::mapToSockDto);
+    }
+
+    public Mono<Integer> getSocksCount(String color, Double exactCottonPercentage, Double minCottonPercentage,
+                                       Double maxCottonPercentage) {
+        return sockRepository.sumCount(SockFilter.of(color, exactCottonPercentage, minCottonPercentage, maxCottonPercentage))
+                .map(Long::intValue);
+    }
+}
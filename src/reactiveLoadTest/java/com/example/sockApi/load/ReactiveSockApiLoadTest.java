@@ -0,0 +1,14 @@
+package com.example.sockApi.load;
+
+import com.example.sockApi.reactive.ReactiveSockApiApplication;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+@SpringBootTest(classes = ReactiveSockApiApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("reactive-loadtest")
+class ReactiveSockApiLoadTest extends AbstractSockApiLoadTest {
+
+    ReactiveSockApiLoadTest() {
+        super("reactive", "sock-api-reactive-load.json");
+    }
+}
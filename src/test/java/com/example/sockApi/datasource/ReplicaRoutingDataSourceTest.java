@@ -0,0 +1,95 @@
+package com.example.sockApi.datasource;
+
+import com.example.sockApi.web.ClientContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+
+class ReplicaRoutingDataSourceTest {
+
+    private final DataSource primary = new DriverManagerDataSource("jdbc:h2:mem:routing_primary;DB_CLOSE_DELAY=-1");
+
+    private final DataSource replica = new DriverManagerDataSource("jdbc:h2:mem:routing_replica;DB_CLOSE_DELAY=-1");
+
+    private final DataSource batch = new DriverManagerDataSource("jdbc:h2:mem:routing_batch;DB_CLOSE_DELAY=-1");
+
+    private final DataSource missingReplica = new DriverManagerDataSource("jdbc:h2:tcp://localhost:1/routing_missing");
+
+    @AfterEach
+    void resetContext() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        ClientContext.clear();
+        DataSourceLane.clear();
+    }
+
+    @Test
+    void testWritesGoToPrimary() throws SQLException {
+        ReplicaRoutingDataSource routing = routing(Duration.ZERO, new ReplicaDataSource("replica-0", replica, primary));
+
+        Assertions.assertEquals("ROUTING_PRIMARY", databaseName(routing));
+    }
+
+    @Test
+    void testReadOnlyTransactionsGoToReplica() throws SQLException {
+        ReplicaRoutingDataSource routing = routing(Duration.ZERO, new ReplicaDataSource("replica-0", replica, primary));
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        Assertions.assertEquals("ROUTING_REPLICA", databaseName(routing));
+    }
+
+    @Test
+    void testUnavailableReplicaFallsBackToPrimary() throws SQLException {
+        ReplicaDataSource brokenReplica = new ReplicaDataSource("replica-0", missingReplica, primary);
+        ReplicaRoutingDataSource routing = routing(Duration.ZERO, brokenReplica);
+
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+
+        Assertions.assertEquals("ROUTING_PRIMARY", databaseName(routing));
+        Assertions.assertFalse(brokenReplica.isHealthy());
+        Assertions.assertEquals(ReplicaRoutingDataSource.PRIMARY, routing.determineCurrentLookupKey());
+    }
+
+    @Test
+    void testBatchLaneWritesGoToBatchPool() throws SQLException {
+        ReplicaRoutingDataSource routing = routing(Duration.ZERO, new ReplicaDataSource("replica-0", replica, primary));
+
+        DataSourceLane.set(DataSourceLane.BATCH);
+
+        Assertions.assertEquals("ROUTING_BATCH", databaseName(routing));
+    }
+
+    @Test
+    void testReadYourWritesKeepsClientOnPrimary() throws SQLException {
+        ReplicaRoutingDataSource routing = routing(Duration.ofMinutes(1), new ReplicaDataSource("replica-0", replica, primary));
+
+        ClientContext.set("client-1");
+        databaseName(routing);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        Assertions.assertEquals("ROUTING_PRIMARY", databaseName(routing));
+
+        ClientContext.set("client-2");
+        Assertions.assertEquals("ROUTING_REPLICA", databaseName(routing));
+    }
+
+    private ReplicaRoutingDataSource routing(Duration readYourWritesWindow, ReplicaDataSource... replicas) {
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(primary, batch, List.of(replicas),
+                new ReadYourWritesTracker(readYourWritesWindow));
+        routing.afterPropertiesSet();
+        return routing;
+    }
+
+    private static String databaseName(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            return connection.getCatalog();
+        }
+    }
+}
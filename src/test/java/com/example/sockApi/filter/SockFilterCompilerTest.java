@@ -0,0 +1,146 @@
+package com.example.sockApi.filter;
+
+import com.example.sockApi.dto.FilterConditionDto;
+import com.example.sockApi.dto.SockFilterExpressionDto;
+import com.example.sockApi.dto.SockFilterGroupDto;
+import com.example.sockApi.entity.Sock;
+import com.example.sockApi.enums.ComparisonOperator;
+import com.example.sockApi.exception.BusinessException;
+import com.example.sockApi.service.ColorDictionary;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Root;
+import java.util.List;
+import java.util.Optional;
+
+@ExtendWith(MockitoExtension.class)
+class SockFilterCompilerTest {
+
+    private static final int RED = 1;
+
+    private static final int BLUE = 2;
+
+    private static final int GREEN = 3;
+
+    @InjectMocks
+    private SockFilterCompiler sockFilterCompiler;
+
+    @Mock
+    private ColorDictionary colorDictionary;
+
+    @Test
+    void testCompile_EmptyExpressionMatchesEverything() throws BusinessException {
+        SockFilterExpression filter = sockFilterCompiler.compile(new SockFilterExpressionDto());
+
+        Assertions.assertTrue(filter.matches(GREEN, 0, 0));
+        Assertions.assertTrue(filter.matches(RED, 10_000, 500));
+    }
+
+    @Test
+    void testCompile_ColorListAndCottonOperators() throws BusinessException {
+        Mockito.when(colorDictionary.findId("Red")).thenReturn(Optional.of(RED));
+        Mockito.when(colorDictionary.findId("Blue")).thenReturn(Optional.of(BLUE));
+        SockFilterGroupDto group = new SockFilterGroupDto(List.of("Red", "Blue"),
+                List.of(condition(ComparisonOperator.MORE_THAN, 30.0), condition(ComparisonOperator.LESS_THAN, 70.0)),
+                null);
+
+        SockFilterExpression filter = sockFilterCompiler.compile(new SockFilterExpressionDto(List.of(group), null));
+
+        Assertions.assertTrue(filter.matches(RED, 3001, 1));
+        Assertions.assertTrue(filter.matches(BLUE, 6999, 1));
+        Assertions.assertFalse(filter.matches(RED, 3000, 1));
+        Assertions.assertFalse(filter.matches(BLUE, 7000, 1));
+        Assertions.assertFalse(filter.matches(GREEN, 5000, 1));
+    }
+
+    @Test
+    void testCompile_OrGroupsAndCountThresholds() throws BusinessException {
+        Mockito.when(colorDictionary.findId("Red")).thenReturn(Optional.of(RED));
+        Mockito.when(colorDictionary.findId("Green")).thenReturn(Optional.of(GREEN));
+        SockFilterGroupDto lowRedStock = new SockFilterGroupDto(List.of("Red"), null,
+                List.of(condition(ComparisonOperator.LESS_THAN, 10.5)));
+        SockFilterGroupDto pureGreen = new SockFilterGroupDto(List.of("Green"),
+                List.of(condition(ComparisonOperator.EQUAL, 100.0)), null);
+
+        SockFilterExpression filter = sockFilterCompiler.compile(
+                new SockFilterExpressionDto(List.of(lowRedStock, pureGreen), null));
+
+        Assertions.assertTrue(filter.matches(RED, 5000, 10));
+        Assertions.assertFalse(filter.matches(RED, 5000, 11));
+        Assertions.assertTrue(filter.matches(GREEN, 10_000, 1_000));
+        Assertions.assertFalse(filter.matches(GREEN, 9_999, 1));
+    }
+
+    @Test
+    void testCompile_UnsatisfiableGroupsMatchNothing() throws BusinessException {
+        Mockito.when(colorDictionary.findId("Unknown")).thenReturn(Optional.empty());
+        SockFilterGroupDto unknownColor = new SockFilterGroupDto(List.of("Unknown"), null, null);
+        SockFilterGroupDto fractionalCount = new SockFilterGroupDto(null, null,
+                List.of(condition(ComparisonOperator.EQUAL, 2.5)));
+
+        SockFilterExpression filter = sockFilterCompiler.compile(
+                new SockFilterExpressionDto(List.of(unknownColor, fractionalCount), null));
+
+        Assertions.assertFalse(filter.matches(RED, 5000, 2));
+        Assertions.assertFalse(filter.matches(RED, 5000, 3));
+    }
+
+    @Test
+    void testToSpecification_MoreThanOffGridValueKeepsNextHundredth() throws BusinessException {
+        SockFilterGroupDto group = new SockFilterGroupDto(null,
+                List.of(condition(ComparisonOperator.MORE_THAN, 50.006)), null);
+
+        SockFilterExpression filter = sockFilterCompiler.compile(new SockFilterExpressionDto(List.of(group), null));
+
+        Assertions.assertTrue(filter.matches(RED, 5001, 1));
+        Assertions.assertFalse(filter.matches(RED, 5000, 1));
+        CriteriaBuilder criteriaBuilder = Mockito.mock(CriteriaBuilder.class);
+        Path<Integer> cotton = toPredicate(filter, criteriaBuilder);
+        Mockito.verify(criteriaBuilder).greaterThanOrEqualTo(cotton, 5001);
+    }
+
+    @Test
+    void testToSpecification_LessThanOffGridValueKeepsItsHundredth() throws BusinessException {
+        SockFilterGroupDto group = new SockFilterGroupDto(null,
+                List.of(condition(ComparisonOperator.LESS_THAN, 50.004)), null);
+
+        SockFilterExpression filter = sockFilterCompiler.compile(new SockFilterExpressionDto(List.of(group), null));
+
+        Assertions.assertTrue(filter.matches(RED, 5000, 1));
+        Assertions.assertFalse(filter.matches(RED, 5001, 1));
+        CriteriaBuilder criteriaBuilder = Mockito.mock(CriteriaBuilder.class);
+        Path<Integer> cotton = toPredicate(filter, criteriaBuilder);
+        Mockito.verify(criteriaBuilder).lessThanOrEqualTo(cotton, 5000);
+    }
+
+    @Test
+    void testCompile_InvalidCottonPercentage() {
+        SockFilterGroupDto group = new SockFilterGroupDto(null,
+                List.of(condition(ComparisonOperator.MORE_THAN, 150.0)), null);
+
+        Assertions.assertThrows(BusinessException.class,
+                () -> sockFilterCompiler.compile(new SockFilterExpressionDto(List.of(group), null)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Path<Integer> toPredicate(SockFilterExpression filter, CriteriaBuilder criteriaBuilder) {
+        Root<Sock> root = Mockito.mock(Root.class);
+        Path<Integer> cotton = Mockito.mock(Path.class);
+        Mockito.doReturn(cotton).when(root).get("cottonBasisPoints");
+        filter.toSpecification().toPredicate(root, Mockito.mock(CriteriaQuery.class), criteriaBuilder);
+        return cotton;
+    }
+
+    private static FilterConditionDto condition(ComparisonOperator operator, Double value) {
+        return new FilterConditionDto(operator, value);
+    }
+}
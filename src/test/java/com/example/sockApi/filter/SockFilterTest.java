@@ -0,0 +1,31 @@
+package com.example.sockApi.filter;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class SockFilterTest {
+
+    @Test
+    void testRangeBoundsRoundInwards() {
+        SockFilter filter = SockFilter.of(null, null, 50.004, 60.006);
+
+        // 50.004 must not match 50.00 and 60.006 must not match 60.01
+        Assertions.assertEquals(5001, filter.minCottonBasisPoints());
+        Assertions.assertEquals(6000, filter.maxCottonBasisPoints());
+        Assertions.assertFalse(filter.matches("red", 5000));
+        Assertions.assertTrue(filter.matches("red", 5001));
+        Assertions.assertFalse(filter.matches("red", 6001));
+    }
+
+    @Test
+    void testOutOfRangeCottonPercentageIsRejected() {
+        for (Double invalid : new Double[]{1e10, -0.5, Double.NaN, Double.POSITIVE_INFINITY}) {
+            IllegalArgumentException exception = Assertions.assertThrows(IllegalArgumentException.class,
+                    () -> SockFilter.of("Red", null, invalid, null));
+
+            Assertions.assertTrue(exception.getMessage().startsWith("Filter error - cotton percentage should be 0-100"));
+        }
+        Assertions.assertThrows(IllegalArgumentException.class, () -> SockFilter.of("Red", 101.0, null, null));
+        Assertions.assertThrows(IllegalArgumentException.class, () -> SockFilter.of("Red", null, null, Double.NaN));
+    }
+}
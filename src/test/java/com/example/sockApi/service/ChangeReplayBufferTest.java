@@ -0,0 +1,39 @@
+package com.example.sockApi.service;
+
+import com.example.sockApi.dto.SockChangeDto;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+class ChangeReplayBufferTest {
+
+    @Test
+    void testEmptyBufferHasNothingToReplay() {
+        ChangeReplayBuffer buffer = new ChangeReplayBuffer(3);
+
+        Assertions.assertEquals(Long.MAX_VALUE, buffer.oldestVersion());
+        Assertions.assertTrue(buffer.since(0).isEmpty());
+    }
+
+    @Test
+    void testOldestChangesAreOverwritten() {
+        ChangeReplayBuffer buffer = new ChangeReplayBuffer(3);
+        for (long version = 1; version <= 5; version++) {
+            buffer.add(change(version));
+        }
+
+        Assertions.assertEquals(3L, buffer.oldestVersion());
+        Assertions.assertEquals(List.of(3L, 4L, 5L), versions(buffer.since(0)));
+        Assertions.assertEquals(List.of(5L), versions(buffer.since(4)));
+        Assertions.assertTrue(buffer.since(5).isEmpty());
+    }
+
+    private static SockChangeDto change(long version) {
+        return new SockChangeDto(version, version, "Red", 50.0, 0, (int) version);
+    }
+
+    private static List<Long> versions(List<SockChangeDto> changes) {
+        return changes.stream().map(SockChangeDto::getVersion).toList();
+    }
+}
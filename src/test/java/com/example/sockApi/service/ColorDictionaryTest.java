@@ -0,0 +1,95 @@
+package com.example.sockApi.service;
+
+import com.example.sockApi.datasource.ShardRoutingDataSource;
+import com.example.sockApi.entity.Color;
+import com.example.sockApi.repository.ColorRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.List;
+import java.util.Optional;
+
+class ColorDictionaryTest {
+
+    private final ColorRepository colorRepository = Mockito.mock(ColorRepository.class);
+
+    private ColorDictionary colorDictionary;
+
+    @BeforeEach
+    void setUp() {
+        Mockito.when(colorRepository.findAll()).thenReturn(List.of(new Color(1, "Blue", "blue"), new Color(2, "Red", "red")));
+        colorDictionary = new ColorDictionary(colorRepository, Mockito.mock(ShardRoutingDataSource.class),
+                Mockito.mock(PlatformTransactionManager.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testColorReadInRolledBackTransactionIsNotCached() {
+        Mockito.when(colorRepository.findByNormalizedName("green")).thenReturn(Optional.of(new Color(3, "Green", "green")));
+
+        TransactionSynchronizationManager.initSynchronization();
+        Assertions.assertEquals(Optional.of(3), colorDictionary.findId("Green"));
+        Assertions.assertEquals(Optional.of(3), colorDictionary.findId(" green "));
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        Mockito.when(colorRepository.findByNormalizedName("green")).thenReturn(Optional.empty());
+        Assertions.assertEquals(Optional.empty(), colorDictionary.findId("Green"));
+        Mockito.verify(colorRepository, Mockito.times(2)).findByNormalizedName("green");
+    }
+
+    @Test
+    void testColorReadInCommittedTransactionIsCached() {
+        Mockito.when(colorRepository.findById(3)).thenReturn(Optional.of(new Color(3, "Green", "green")));
+
+        TransactionSynchronizationManager.initSynchronization();
+        Assertions.assertEquals("Green", colorDictionary.nameOf(3));
+        TransactionSynchronizationUtils.triggerAfterCommit();
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        Assertions.assertEquals("Green", colorDictionary.nameOf(3));
+        Assertions.assertEquals(Optional.of(3), colorDictionary.findId("green"));
+        Mockito.verify(colorRepository, Mockito.times(1)).findById(3);
+        Mockito.verify(colorRepository, Mockito.never()).findByNormalizedName("green");
+    }
+
+    @Test
+    void testColorReadOutsideTransactionIsCachedImmediately() {
+        Mockito.when(colorRepository.findByNormalizedName("green")).thenReturn(Optional.of(new Color(3, "Green", "green")));
+
+        colorDictionary.findId("Green");
+        colorDictionary.findId("Green");
+
+        Mockito.verify(colorRepository, Mockito.times(1)).findByNormalizedName("green");
+    }
+
+    @Test
+    void testUncommittedColorSortsBetweenItsNeighbours() {
+        Mockito.when(colorRepository.findById(3)).thenReturn(Optional.of(new Color(3, "Green", "green")));
+
+        TransactionSynchronizationManager.initSynchronization();
+        int blue = colorDictionary.rankOf(1);
+        int green = colorDictionary.rankOf(3);
+        int red = colorDictionary.rankOf(2);
+
+        Assertions.assertTrue(blue < green && green < red);
+    }
+
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, status);
+    }
+}
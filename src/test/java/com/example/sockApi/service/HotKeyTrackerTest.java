@@ -0,0 +1,100 @@
+package com.example.sockApi.service;
+
+import com.example.sockApi.config.HotKeyProperties;
+import com.example.sockApi.dto.HotKeyDto;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.util.List;
+
+class HotKeyTrackerTest {
+
+    private static final long COMMIT_MILLIS = 5;
+
+    @Test
+    void testTopKeysByWrites() {
+        HotKeyProperties properties = new HotKeyProperties();
+        properties.setTopK(2);
+        HotKeyTracker tracker = new HotKeyTracker(properties);
+
+        for (int i = 0; i < 50; i++) {
+            tracker.recordWrite("Red", 75.0);
+        }
+        for (int i = 0; i < 30; i++) {
+            tracker.recordWrite(" red ", 50.0);
+        }
+        for (int i = 0; i < 200; i++) {
+            tracker.recordWrite("color-" + i, 10.0);
+        }
+
+        List<HotKeyDto> hotKeys = tracker.getHotKeys();
+
+        Assertions.assertEquals(2, hotKeys.size());
+        Assertions.assertEquals("red", hotKeys.get(0).getColor());
+        Assertions.assertEquals(75.0, hotKeys.get(0).getCottonPercentage());
+        Assertions.assertTrue(hotKeys.get(0).getWrites() >= 50);
+        Assertions.assertEquals(50.0, hotKeys.get(1).getCottonPercentage());
+        Assertions.assertTrue(hotKeys.get(1).getWrites() >= 30);
+    }
+
+    @Test
+    void testDisabledTrackerRecordsNothing() {
+        HotKeyProperties properties = new HotKeyProperties();
+        properties.setEnabled(false);
+        HotKeyTracker tracker = new HotKeyTracker(properties);
+
+        tracker.recordWrite("Red", 75.0);
+
+        Assertions.assertTrue(tracker.getHotKeys().isEmpty());
+    }
+
+    @Test
+    void testOnlyCommittedWritesAreCounted() throws InterruptedException {
+        HotKeyTracker tracker = new HotKeyTracker(new HotKeyProperties());
+
+        inTransaction(() -> tracker.recordWrite("Red", 75.0), false);
+        Assertions.assertTrue(tracker.getHotKeys().isEmpty());
+
+        inTransaction(() -> tracker.recordWrite("Red", 75.0), true);
+        List<HotKeyDto> hotKeys = tracker.getHotKeys();
+
+        Assertions.assertEquals(1, hotKeys.size());
+        Assertions.assertEquals(1, hotKeys.get(0).getWrites());
+        Assertions.assertTrue(hotKeys.get(0).getTotalLockWaitMillis() >= COMMIT_MILLIS);
+    }
+
+    @Test
+    void testCommitOfSeveralKeysIsNotChargedToAnyOfThem() throws InterruptedException {
+        HotKeyTracker tracker = new HotKeyTracker(new HotKeyProperties());
+
+        inTransaction(() -> {
+            tracker.recordWrite("Red", 75.0);
+            tracker.recordWrite("Blue", 20.0);
+        }, true);
+        List<HotKeyDto> hotKeys = tracker.getHotKeys();
+
+        Assertions.assertEquals(2, hotKeys.size());
+        Assertions.assertTrue(hotKeys.stream().allMatch(hotKey -> hotKey.getWrites() == 1));
+        Assertions.assertTrue(hotKeys.stream().allMatch(hotKey -> hotKey.getTotalLockWaitMillis() == 0));
+    }
+
+    private static void inTransaction(Runnable writes, boolean commit) throws InterruptedException {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            writes.run();
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            if (commit) {
+                TransactionSynchronizationUtils.triggerBeforeCommit(false);
+                Thread.sleep(COMMIT_MILLIS);
+                TransactionSynchronizationUtils.invokeAfterCommit(synchronizations);
+            }
+            TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, commit
+                    ? TransactionSynchronization.STATUS_COMMITTED : TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.sockApi.service;
+
+import com.example.sockApi.config.LowStockProperties;
+import com.example.sockApi.dto.LowStockDto;
+import com.example.sockApi.dto.SockDto;
+import com.example.sockApi.event.SockChangedEvent;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+class LowStockMonitorTest {
+
+    private final ShardedSockService shardedSockService = Mockito.mock(ShardedSockService.class);
+
+    private LowStockMonitor lowStockMonitor;
+
+    @BeforeEach
+    void setUp() {
+        LowStockProperties properties = new LowStockProperties();
+        properties.setDefaultThreshold(5);
+        properties.setColors(Map.of("Red", 50));
+        properties.setKeys(Map.of("red:75", 10));
+        lowStockMonitor = new LowStockMonitor(shardedSockService, properties);
+    }
+
+    @Test
+    void testInitialStateIsLoadedOnce() {
+        Mockito.when(shardedSockService.getSocks(null, null, null, null, null)).thenReturn(List.of(
+                new SockDto(1L, "Red", 50.0, 30, 1),
+                new SockDto(2L, "Red", 75.0, 30, 1),
+                new SockDto(3L, "Blue", 10.0, 3, 2)));
+
+        lowStockMonitor.loadInitialState();
+
+        Assertions.assertEquals(List.of(1L, 3L), ids(lowStockMonitor.getLowStock()));
+        Mockito.verify(shardedSockService).getSocks(null, null, null, null, null);
+    }
+
+    @Test
+    void testChangesDuringTheInitialReadAreNotOverwritten() {
+        Mockito.when(shardedSockService.getSocks(null, null, null, null, null)).thenAnswer(invocation -> {
+            // position 3 is restocked and 1 sold out after the read saw them
+            lowStockMonitor.onSockChanged(new SockChangedEvent(3L, "Blue", 10.0, 3, 30, 2));
+            lowStockMonitor.onSockChanged(new SockChangedEvent(1L, "Red", 50.0, 60, 0, 1));
+            return List.of(new SockDto(1L, "Red", 50.0, 60, 1), new SockDto(3L, "Blue", 10.0, 3, 2));
+        });
+
+        lowStockMonitor.loadInitialState();
+
+        Assertions.assertEquals(List.of(1L), ids(lowStockMonitor.getLowStock()));
+        Assertions.assertEquals(0, lowStockMonitor.getLowStock().get(0).getCount());
+
+        lowStockMonitor.onSockChanged(new SockChangedEvent(1L, "Red", 50.0, 0, 80, 1));
+        Assertions.assertTrue(lowStockMonitor.getLowStock().isEmpty());
+    }
+
+    @Test
+    void testReloadReplacesTheSetAndSkipsTheInitialRead() {
+        lowStockMonitor.onSockChanged(new SockChangedEvent(3L, "Blue", 10.0, 10, 3, 1));
+
+        lowStockMonitor.reload(Stream.of(
+                new SockDto(1L, "Red", 50.0, 30, 1),
+                new SockDto(3L, "Blue", 10.0, 30, 1)));
+        lowStockMonitor.loadInitialState();
+
+        Assertions.assertEquals(List.of(1L), ids(lowStockMonitor.getLowStock()));
+        Mockito.verifyNoInteractions(shardedSockService);
+    }
+
+    @Test
+    void testThresholdCrossingsUpdateTheSet() {
+        lowStockMonitor.onSockChanged(new SockChangedEvent(1L, "Red", 50.0, 60, 30, 1));
+        lowStockMonitor.onSockChanged(new SockChangedEvent(2L, "red", 75.0, 30, 20, 1));
+        lowStockMonitor.onSockChanged(new SockChangedEvent(3L, "Blue", 10.0, 10, 3, 1));
+
+        List<LowStockDto> lowStock = lowStockMonitor.getLowStock();
+        Assertions.assertEquals(List.of(3L, 1L), ids(lowStock));
+        Assertions.assertEquals(50, lowStock.get(1).getThreshold());
+
+        lowStockMonitor.onSockChanged(new SockChangedEvent(1L, "Red", 50.0, 30, 80, 1));
+
+        Assertions.assertEquals(List.of(3L), ids(lowStockMonitor.getLowStock()));
+        Mockito.verifyNoInteractions(shardedSockService);
+    }
+
+    @Test
+    void testMovedPositionLeavesItsOldKey() {
+        lowStockMonitor.onSockChanged(new SockChangedEvent(3L, "Blue", 10.0, 10, 3, 1));
+        lowStockMonitor.onSockChanged(new SockChangedEvent(3L, "Blue", 10.0, 3, 0, 1));
+        lowStockMonitor.onSockChanged(new SockChangedEvent(3L, "Green", 10.0, 0, 100, 1));
+
+        Assertions.assertTrue(lowStockMonitor.getLowStock().isEmpty());
+    }
+
+    @Test
+    void testWarehousesAreTrackedSeparately() {
+        lowStockMonitor.onSockChanged(new SockChangedEvent(1L, "Blue", 10.0, 10, 3, 1));
+        lowStockMonitor.onSockChanged(new SockChangedEvent(1L, "Blue", 10.0, 10, 4, 2));
+        lowStockMonitor.onSockChanged(new SockChangedEvent(1L, "Blue", 10.0, 3, 9, 1));
+
+        List<LowStockDto> lowStock = lowStockMonitor.getLowStock();
+        Assertions.assertEquals(1, lowStock.size());
+        Assertions.assertEquals(2, lowStock.get(0).getWarehouseId());
+    }
+
+    private static List<Long> ids(List<LowStockDto> lowStock) {
+        return lowStock.stream().map(LowStockDto::getId).toList();
+    }
+}
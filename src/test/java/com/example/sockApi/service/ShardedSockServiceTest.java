@@ -0,0 +1,197 @@
+package com.example.sockApi.service;
+
+import com.example.sockApi.config.ShardingProperties;
+import com.example.sockApi.datasource.ShardRoutingDataSource;
+import com.example.sockApi.dto.SockDto;
+import com.example.sockApi.enums.SortBy;
+import com.example.sockApi.exception.BusinessException;
+import com.example.sockApi.web.WarehouseContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.List;
+import java.util.Map;
+
+// three H2 databases on the real schema: home (Flyway of the application), north (warehouse 2) and south
+// (warehouse 3) migrated by DataSourceConfig; warehouse 4 is the configured default and has no shard
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + ShardedSockServiceTest.HOME_URL,
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "sock.rate-limit.enabled=false",
+        "sock.sharding.default-warehouse=4",
+        "sock.sharding.shard-timeout=500ms",
+        "sock.sharding.shards[0].name=north",
+        "sock.sharding.shards[0].url=" + ShardedSockServiceTest.NORTH_URL,
+        "sock.sharding.shards[0].username=sa",
+        "sock.sharding.shards[0].warehouses=2",
+        "sock.sharding.shards[1].name=south",
+        "sock.sharding.shards[1].url=" + ShardedSockServiceTest.SOUTH_URL,
+        "sock.sharding.shards[1].username=sa",
+        "sock.sharding.shards[1].warehouses=3"
+})
+class ShardedSockServiceTest {
+
+    static final String HOME_URL = "jdbc:h2:mem:sharding_home;MODE=PostgreSQL;DB_CLOSE_DELAY=-1";
+
+    static final String NORTH_URL = "jdbc:h2:mem:sharding_north;MODE=PostgreSQL;DB_CLOSE_DELAY=-1";
+
+    static final String SOUTH_URL = "jdbc:h2:mem:sharding_south;MODE=PostgreSQL;DB_CLOSE_DELAY=-1";
+
+    private final JdbcTemplate home = new JdbcTemplate(new DriverManagerDataSource(HOME_URL, "sa", ""));
+
+    private final JdbcTemplate north = new JdbcTemplate(new DriverManagerDataSource(NORTH_URL, "sa", ""));
+
+    private final JdbcTemplate south = new JdbcTemplate(new DriverManagerDataSource(SOUTH_URL, "sa", ""));
+
+    @Autowired
+    private SockService sockService;
+
+    @Autowired
+    private ShardedSockService shardedSockService;
+
+    @Autowired
+    private ShardRoutingDataSource routing;
+
+    @Autowired
+    private ColorDictionary colorDictionary;
+
+    @Autowired
+    private ShardingProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        for (JdbcTemplate shard : List.of(home, north, south)) {
+            shard.update("DELETE FROM socks");
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        WarehouseContext.clear();
+    }
+
+    @Test
+    void testWarehousesRouteToTheirShards() {
+        WarehouseContext.set(3);
+        Assertions.assertEquals("south", routing.currentShard());
+
+        WarehouseContext.set(42);
+        Assertions.assertEquals(ShardRoutingDataSource.HOME, routing.currentShard());
+
+        WarehouseContext.clear();
+        Assertions.assertEquals(4, WarehouseContext.currentWarehouseId());
+        Assertions.assertEquals(ShardRoutingDataSource.HOME, routing.currentShard());
+    }
+
+    @Test
+    void testWritesLandOnTheWarehouseShard() throws BusinessException {
+        WarehouseContext.set(2);
+        sockService.addSocks("Red", 50.0, 10);
+        WarehouseContext.set(3);
+        sockService.addSocks("Red", 50.0, 5);
+        sockService.removeSocks("Red", 50.0, 1);
+        WarehouseContext.set(42);
+        sockService.addSocks("Red", 50.0, 2);
+        WarehouseContext.clear();
+        sockService.addSocks("Red", 50.0, 1);
+
+        Assertions.assertEquals(List.of("2:10"), stock(north));
+        Assertions.assertEquals(List.of("3:4"), stock(south));
+        Assertions.assertEquals(List.of("4:1", "42:2"), stock(home));
+    }
+
+    @Test
+    void testColorIdsAgreeAcrossShards() throws BusinessException {
+        WarehouseContext.set(3);
+        sockService.addSocks("Olive", 20.0, 1);
+        WarehouseContext.set(2);
+        sockService.addSocks("Navy", 20.0, 1);
+        sockService.addSocks(" olive ", 30.0, 1);
+        WarehouseContext.clear();
+        sockService.addSocks("NAVY", 40.0, 1);
+
+        // ids are handed out by the home shard, the other shards store copies under the same id
+        Integer olive = colorId(home, "olive");
+        Integer navy = colorId(home, "navy");
+        Assertions.assertNotEquals(olive, navy);
+        Assertions.assertEquals(olive, colorId(north, "olive"));
+        Assertions.assertEquals(olive, colorId(south, "olive"));
+        Assertions.assertEquals(navy, colorId(north, "navy"));
+        Assertions.assertTrue(south.queryForList("SELECT id FROM colors WHERE normalized_name = 'navy'").isEmpty());
+        Assertions.assertEquals(List.of(olive, navy),
+                north.queryForList("SELECT color_id FROM socks ORDER BY cotton_basis_points DESC", Integer.class));
+        Assertions.assertEquals(olive, colorDictionary.resolveId("Olive"));
+    }
+
+    @Test
+    void testGetSocksMergesSortedShardResults() throws BusinessException {
+        WarehouseContext.set(2);
+        sockService.addSocks("Blue", 20.0, 7);
+        sockService.addSocks("Blue", 50.0, 2);
+        sockService.addSocks("Blue", 90.0, 4);
+        WarehouseContext.set(3);
+        sockService.addSocks("Green", 15.0, 3);
+        WarehouseContext.clear();
+        sockService.addSocks("Red", 10.0, 5);
+        sockService.addSocks("Red", 70.0, 1);
+
+        List<SockDto> socks = shardedSockService.getSocks(null, null, null, null, SortBy.COTTON_PERCENTAGE_ASC);
+
+        Assertions.assertEquals(List.of(10.0, 15.0, 20.0, 50.0, 70.0, 90.0),
+                socks.stream().map(SockDto::getCottonPercentage).toList());
+        Assertions.assertEquals(List.of(4, 3, 2, 2, 4, 2), socks.stream().map(SockDto::getWarehouseId).toList());
+        Assertions.assertEquals(22, shardedSockService.getSocksCount(null, null, null, null));
+    }
+
+    @Test
+    void testSlowShardFailsTheRequest() {
+        SockService slowSockService = Mockito.mock(SockService.class);
+        Mockito.when(slowSockService.getSocksCount("Blue", null, null, null)).thenAnswer(invocation -> {
+            if ("north".equals(routing.currentShard())) {
+                Thread.sleep(5_000);
+            }
+            return 0;
+        });
+        ShardedSockService service = new ShardedSockService(slowSockService, routing, colorDictionary, properties);
+
+        try {
+            Assertions.assertThrows(DataAccessResourceFailureException.class,
+                    () -> service.getSocksCount("Blue", null, null, null));
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void testSingleShardDelegatesWithoutFanOut() {
+        SockService homeSockService = Mockito.mock(SockService.class);
+        ShardRoutingDataSource single = new ShardRoutingDataSource(home.getDataSource(), Map.of(), Map.of());
+        single.afterPropertiesSet();
+        ShardedSockService service = new ShardedSockService(homeSockService, single, colorDictionary, properties);
+        Mockito.when(homeSockService.getSocksCount("Red", null, null, null)).thenReturn(6);
+
+        Assertions.assertEquals(6, service.getSocksCount("Red", null, null, null));
+        service.shutdown();
+    }
+
+    private static List<String> stock(JdbcTemplate shard) {
+        return shard.query("SELECT warehouse_id, count FROM socks ORDER BY warehouse_id",
+                (resultSet, rowNum) -> resultSet.getInt(1) + ":" + resultSet.getInt(2));
+    }
+
+    private static Integer colorId(JdbcTemplate shard, String normalizedName) {
+        return shard.queryForObject("SELECT id FROM colors WHERE normalized_name = ?", Integer.class, normalizedName);
+    }
+}
@@ -0,0 +1,223 @@
+package com.example.sockApi.service;
+
+import com.example.sockApi.config.BatchProperties;
+import com.example.sockApi.config.SnapshotProperties;
+import com.example.sockApi.datasource.ShardRoutingDataSource;
+import com.example.sockApi.dto.SnapshotInfoDto;
+import com.example.sockApi.dto.SockDto;
+import com.example.sockApi.entity.Color;
+import com.example.sockApi.exception.BusinessException;
+import com.example.sockApi.exception.TechnicalException;
+import com.example.sockApi.repository.ColorRepository;
+import com.example.sockApi.repository.SockRepository;
+import com.example.sockApi.snapshot.SnapshotColor;
+import com.example.sockApi.snapshot.SnapshotRecord;
+import com.example.sockApi.snapshot.SnapshotWriter;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:snapshot_home;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "sock.rate-limit.enabled=false"
+})
+class SnapshotServiceTest {
+
+    // createdAtMillis follows the magic and the format and schema versions
+    private static final int CREATED_AT_OFFSET = 16;
+
+    @TempDir
+    Path directory;
+
+    @Autowired
+    private SnapshotService snapshotService;
+
+    @Autowired
+    private SockService sockService;
+
+    @Autowired
+    private SnapshotProperties properties;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ColorRepository colorRepository = Mockito.mock(ColorRepository.class);
+
+    private final ColorDictionary colorDictionary = Mockito.mock(ColorDictionary.class);
+
+    private final LowStockMonitor lowStockMonitor = Mockito.mock(LowStockMonitor.class);
+
+    @BeforeEach
+    void setUp() {
+        properties.setDirectory(directory.toString());
+        jdbcTemplate.update("DELETE FROM socks");
+    }
+
+    @Test
+    void testRestoreReplacesStockAndMovesIdentityPastRestoredIds() throws BusinessException, TechnicalException {
+        SockDto red = sockService.addSocks("Red", 50.0, 10);
+        SockDto blue = sockService.addSocks("Blue", 20.0, 3);
+        SnapshotInfoDto written = snapshotService.writeSnapshot();
+        sockService.addSocks("Green", 30.0, 5);
+        sockService.removeSocks("Red", 50.0, 4);
+
+        SnapshotInfoDto restored = snapshotService.restoreSnapshot(null);
+
+        Assertions.assertEquals(written.getCrc32(), restored.getCrc32());
+        Assertions.assertEquals(2L, restored.getRecords());
+        Assertions.assertEquals(List.of(red.getId() + ":10", blue.getId() + ":3"), stock());
+        // the restore removed the Green row, its id is handed out again instead of being skipped
+        SockDto green = sockService.addSocks("Green", 30.0, 1);
+        Assertions.assertEquals(blue.getId() + 1, green.getId());
+    }
+
+    @Test
+    void testColorIdMismatchLeavesStockUnchanged() throws BusinessException, TechnicalException {
+        SockDto olive = sockService.addSocks("Olive", 20.0, 2);
+        snapshotService.writeSnapshot();
+        sockService.addSocks("Olive", 20.0, 5);
+        Integer oliveId = jdbcTemplate.queryForObject("SELECT id FROM colors WHERE normalized_name = 'olive'", Integer.class);
+        jdbcTemplate.update("UPDATE colors SET name = 'Khaki', normalized_name = 'khaki' WHERE id = ?", oliveId);
+        try {
+            BusinessException exception = Assertions.assertThrows(BusinessException.class,
+                    () -> snapshotService.restoreSnapshot(null));
+
+            Assertions.assertTrue(exception.getMessage().contains("color Olive has id " + oliveId));
+            Assertions.assertEquals(List.of(olive.getId() + ":7"), stock());
+        } finally {
+            jdbcTemplate.update("UPDATE colors SET name = 'Olive', normalized_name = 'olive' WHERE id = ?", oliveId);
+        }
+    }
+
+    @Test
+    void testFileOutsideTheSnapshotDirectoryIsRejected() {
+        Assertions.assertThrows(BusinessException.class, () -> snapshotService.restoreSnapshot("../sock-inventory.snap"));
+    }
+
+    @Test
+    void testSnapshotOfAnotherShardIsRejected() throws BusinessException, IOException {
+        SockDto red = sockService.addSocks("Red", 50.0, 10);
+        SnapshotWriter.write(directory.resolve("home-" + properties.getFileName()), "north",
+                List.of(new SnapshotColor(1, "Red", "red")), List.of(new SnapshotRecord(1L, 1, 1, 5000, 3)).iterator());
+
+        BusinessException exception = Assertions.assertThrows(BusinessException.class,
+                () -> snapshotService.restoreSnapshot(null));
+
+        Assertions.assertTrue(exception.getMessage().contains("written on shard north"));
+        Assertions.assertEquals(List.of(red.getId() + ":10"), stock());
+    }
+
+    @Test
+    void testStockOfAnotherShardsWarehouseIsRejected() throws IOException {
+        ShardRoutingDataSource routing = Mockito.mock(ShardRoutingDataSource.class);
+        Mockito.when(routing.currentShard()).thenReturn("north");
+        Mockito.when(routing.shardFor(2)).thenReturn("north");
+        Mockito.when(routing.shardFor(3)).thenReturn("south");
+        JdbcTemplate shardJdbcTemplate = Mockito.mock(JdbcTemplate.class);
+        SnapshotWriter.write(directory.resolve("north-" + properties.getFileName()), "north",
+                List.of(new SnapshotColor(1, "Red", "red")),
+                List.of(new SnapshotRecord(1L, 2, 1, 5000, 3), new SnapshotRecord(2L, 3, 1, 5000, 4)).iterator());
+
+        BusinessException exception = Assertions.assertThrows(BusinessException.class,
+                () -> service(routing, shardJdbcTemplate, properties).restoreSnapshot(null));
+
+        Assertions.assertTrue(exception.getMessage().contains("warehouse 3, which belongs to shard south"));
+        Mockito.verifyNoInteractions(shardJdbcTemplate, colorRepository);
+    }
+
+    @Test
+    void testWarmStartPreloadsColorsOnly() throws IOException {
+        writeWarmStartSnapshot();
+        Mockito.when(colorRepository.findAllById(List.of(1))).thenReturn(List.of(new Color(1, "Red", "red")));
+
+        warmStartService().warmStart();
+
+        Mockito.verify(colorDictionary).preload(Mockito.argThat(colors ->
+                colors.size() == 1 && colors.iterator().next().getNormalizedName().equals("red")));
+        Mockito.verifyNoInteractions(lowStockMonitor);
+    }
+
+    @Test
+    void testWarmStartSkipsColorsTheDatabaseDisagreesWith() throws IOException {
+        writeWarmStartSnapshot();
+        Mockito.when(colorRepository.findAllById(List.of(1))).thenReturn(List.of(new Color(1, "Blue", "blue")));
+
+        warmStartService().warmStart();
+
+        Mockito.verifyNoInteractions(colorDictionary, lowStockMonitor);
+    }
+
+    @Test
+    void testWarmStartSkipsStaleSnapshot() throws IOException {
+        Path file = writeWarmStartSnapshot();
+        try (RandomAccessFile raw = new RandomAccessFile(file.toFile(), "rw")) {
+            raw.seek(CREATED_AT_OFFSET);
+            raw.writeLong(System.currentTimeMillis() - Duration.ofHours(1).toMillis());
+        }
+
+        warmStartService().warmStart();
+
+        Mockito.verifyNoInteractions(colorDictionary, lowStockMonitor);
+    }
+
+    @Test
+    void testWarmStartSkipsCorruptSnapshot() throws IOException {
+        Path file = writeWarmStartSnapshot();
+        try (RandomAccessFile raw = new RandomAccessFile(file.toFile(), "rw")) {
+            long lastCount = raw.length() - 1;
+            raw.seek(lastCount);
+            int value = raw.read();
+            raw.seek(lastCount);
+            raw.write(value ^ 1);
+        }
+
+        warmStartService().warmStart();
+
+        Mockito.verifyNoInteractions(colorDictionary, lowStockMonitor);
+    }
+
+    private Path writeWarmStartSnapshot() throws IOException {
+        Path file = directory.resolve(ShardRoutingDataSource.HOME + "-" + properties.getFileName());
+        SnapshotWriter.write(file, ShardRoutingDataSource.HOME, List.of(new SnapshotColor(1, "Red", "red")),
+                List.of(new SnapshotRecord(1L, 1, 1, 5000, 3)).iterator());
+        return file;
+    }
+
+    private SnapshotService warmStartService() {
+        SnapshotProperties warmStart = new SnapshotProperties();
+        warmStart.setDirectory(directory.toString());
+        warmStart.setWarmStart(true);
+        warmStart.setMaxAge(Duration.ofMinutes(10));
+        return service(Mockito.mock(ShardRoutingDataSource.class), Mockito.mock(JdbcTemplate.class), warmStart);
+    }
+
+    private SnapshotService service(ShardRoutingDataSource routing, JdbcTemplate shardJdbcTemplate,
+                                    SnapshotProperties snapshotProperties) {
+        return new SnapshotService(Mockito.mock(SockRepository.class), colorRepository, colorDictionary,
+                lowStockMonitor, Mockito.mock(SockChangeFeed.class), Mockito.mock(ShardedSockService.class),
+                routing, shardJdbcTemplate, snapshotProperties, new BatchProperties(),
+                Mockito.mock(PlatformTransactionManager.class));
+    }
+
+    private List<String> stock() {
+        return jdbcTemplate.query("SELECT id, count FROM socks ORDER BY id",
+                (resultSet, rowNum) -> resultSet.getLong(1) + ":" + resultSet.getInt(2));
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.sockApi.service;
+
+import com.example.sockApi.config.BatchProperties;
+import com.example.sockApi.dto.BatchKeyTotalDto;
+import com.example.sockApi.dto.BatchReportDto;
+import com.example.sockApi.dto.SockDto;
+import com.example.sockApi.exception.BusinessException;
+import com.example.sockApi.exception.TechnicalException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+@ExtendWith(MockitoExtension.class)
+class SockBatchServiceTest {
+
+    @Mock
+    private SockService sockService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SockBatchService sockBatchService;
+
+    @BeforeEach
+    void setUp() {
+        BatchProperties properties = new BatchProperties();
+        properties.setChunkSize(2);
+        properties.setMaxReportedErrors(2);
+        sockBatchService = new SockBatchService(sockService, properties, transactionManager);
+    }
+
+    @Test
+    void testIngestCsv_CollectsInvalidRowsAndAppliesValidOnes() throws BusinessException, TechnicalException {
+        String csv = "Red,50,10\n"
+                + "Red,abc,10\n"
+                + "red,50.0,5\n"
+                + "Blue,101,1\n"
+                + "Blue,20,-1\n";
+
+        Mockito.when(sockService.addSocks("Red", 50.0, 15)).thenReturn(new SockDto(1L, "Red", 50.0, 115));
+
+        BatchReportDto report = sockBatchService.ingestCsv(stream(csv), "socks.csv");
+
+        Assertions.assertEquals(2L, report.getApplied());
+        Assertions.assertEquals(3L, report.getRejected());
+        Assertions.assertEquals(2, report.getErrors().size());
+        Assertions.assertTrue(report.getErrorsTruncated());
+        Assertions.assertEquals(2L, report.getErrors().get(0).getLineNumber());
+        Assertions.assertEquals("cotton percentage is not a number", report.getErrors().get(0).getReason());
+        Assertions.assertEquals(4L, report.getErrors().get(1).getLineNumber());
+        Assertions.assertEquals(1, report.getTotals().size());
+        Assertions.assertEquals(15L, report.getTotals().get(0).getReceived());
+        Assertions.assertEquals(115, report.getTotals().get(0).getCount());
+    }
+
+    @Test
+    void testIngestCsv_FailedChunkIsRetriedRowByRow() throws BusinessException, TechnicalException {
+        String csv = "Red,50,10\n"
+                + "Green,30,1\n"
+                + "Blue,20,3\n";
+
+        Mockito.when(sockService.addSocks("Red", 50.0, 10)).thenReturn(new SockDto(1L, "Red", 50.0, 10));
+        Mockito.when(sockService.addSocks("Green", 30.0, 1)).thenThrow(new BusinessException("Error"));
+        Mockito.when(sockService.addSocks("Blue", 20.0, 3)).thenReturn(new SockDto(2L, "Blue", 20.0, 3));
+
+        BatchReportDto report = sockBatchService.ingestCsv(stream(csv), "socks.csv");
+
+        Assertions.assertEquals(2L, report.getApplied());
+        Assertions.assertEquals(1L, report.getRejected());
+        Assertions.assertEquals(2L, report.getErrors().get(0).getLineNumber());
+        Assertions.assertEquals("Error", report.getErrors().get(0).getReason());
+        Assertions.assertEquals(List.of(1L, 2L), report.getTotals().stream().map(BatchKeyTotalDto::getId).toList());
+        Mockito.verify(sockService, Mockito.times(2)).addSocks("Red", 50.0, 10);
+        Mockito.verify(transactionManager, Mockito.times(2)).rollback(Mockito.any());
+    }
+
+    @Test
+    void testIngestCsv_DatabaseFailureAbortsTheUpload() throws BusinessException {
+        String csv = "Red,50,10\n"
+                + "Green,30,1\n";
+
+        Mockito.when(sockService.addSocks("Red", 50.0, 10))
+                .thenThrow(new DataAccessResourceFailureException("Connection refused"));
+
+        Assertions.assertThrows(DataAccessResourceFailureException.class,
+                () -> sockBatchService.ingestCsv(stream(csv), "socks.csv"));
+        // the chunk is not retried row by row
+        Mockito.verify(sockService).addSocks("Red", 50.0, 10);
+        Mockito.verify(sockService, Mockito.never()).addSocks("Green", 30.0, 1);
+    }
+
+    @Test
+    void testIngestCsv_TransientFailureAbortsTheUpload() throws BusinessException {
+        Mockito.when(sockService.addSocks("Red", 50.0, 10)).thenThrow(new CannotAcquireLockException("Deadlock"));
+
+        Assertions.assertThrows(CannotAcquireLockException.class,
+                () -> sockBatchService.ingestCsv(stream("Red,50,10\n"), "socks.csv"));
+        Mockito.verify(sockService).addSocks("Red", 50.0, 10);
+    }
+
+    @Test
+    void testIngestCsv_NoConnectionAbortsTheUpload() {
+        Mockito.when(transactionManager.getTransaction(Mockito.any()))
+                .thenThrow(new CannotCreateTransactionException("Pool exhausted"));
+
+        Assertions.assertThrows(CannotCreateTransactionException.class,
+                () -> sockBatchService.ingestCsv(stream("Red,50,10\n"), "socks.csv"));
+        Mockito.verifyNoInteractions(sockService);
+    }
+
+    @Test
+    void testIngestCsv_UnreadableUploadIsTechnicalException() throws IOException {
+        MultipartFile file = Mockito.mock(MultipartFile.class);
+        Mockito.when(file.getOriginalFilename()).thenReturn("socks.csv");
+        Mockito.when(file.getInputStream()).thenThrow(new IOException("Stream closed"));
+
+        TechnicalException exception = Assertions.assertThrows(TechnicalException.class,
+                () -> sockBatchService.ingestCsv(file));
+
+        Assertions.assertTrue(exception.getMessage().contains("socks.csv"));
+        Mockito.verifyNoInteractions(sockService);
+    }
+
+    @Test
+    void testIngestCsvStream_Gzip() throws BusinessException, TechnicalException, IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(compressed)) {
+            gzipOutputStream.write("Red,50,10\n".getBytes(StandardCharsets.UTF_8));
+        }
+
+        Mockito.when(sockService.addSocks("Red", 50.0, 10)).thenReturn(new SockDto(1L, "Red", 50.0, 10));
+
+        BatchReportDto report = sockBatchService.ingestCsvStream(
+                new ByteArrayInputStream(compressed.toByteArray()), "gzip", "socks.csv.gz");
+
+        Assertions.assertEquals(1L, report.getApplied());
+        Assertions.assertEquals(0L, report.getRejected());
+    }
+
+    @Test
+    void testIngestCsvStream_UnsupportedEncoding() {
+        Assertions.assertThrows(BusinessException.class,
+                () -> sockBatchService.ingestCsvStream(stream("Red,50,10"), "br", "socks.csv"));
+        Mockito.verifyNoInteractions(sockService);
+    }
+
+    private static ByteArrayInputStream stream(String csv) {
+        return new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8));
+    }
+}
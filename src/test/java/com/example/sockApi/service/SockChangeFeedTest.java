@@ -0,0 +1,203 @@
+package com.example.sockApi.service;
+
+import com.example.sockApi.config.ChangeFeedProperties;
+import com.example.sockApi.event.SockChangedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+class SockChangeFeedTest {
+
+    private final ChangeFeedProperties properties = new ChangeFeedProperties();
+
+    private RecordingEmitter emitter;
+
+    private SockChangeFeed feed;
+
+    @BeforeEach
+    void setUp() {
+        properties.setReplayBufferSize(3);
+        properties.setSubscriberQueueSize(2);
+        properties.setDispatcherThreads(1);
+        emitter = new RecordingEmitter();
+        feed = feed(emitter);
+    }
+
+    @AfterEach
+    void tearDown() {
+        emitter.release.countDown();
+        feed.shutdown();
+    }
+
+    @Test
+    void testLastEventIdReplaysOnlyMissedChanges() throws InterruptedException {
+        publish(3);
+
+        feed.subscribe(1L);
+
+        emitter.awaitEvents(2);
+        Assertions.assertEquals(List.of("sock-change:2", "sock-change:3"), emitter.events());
+    }
+
+    @Test
+    void testIdOlderThanTheBufferGetsReset() throws InterruptedException {
+        publish(5);
+
+        feed.subscribe(1L);
+
+        emitter.awaitEvents(1);
+        Assertions.assertEquals(List.of("reset:5"), emitter.events());
+    }
+
+    @Test
+    void testUnknownFutureIdGetsReset() throws InterruptedException {
+        publish(2);
+
+        feed.subscribe(10L);
+
+        emitter.awaitEvents(1);
+        Assertions.assertEquals(List.of("reset:2"), emitter.events());
+    }
+
+    @Test
+    void testSlowSubscriberIsDropped() throws InterruptedException {
+        emitter.release = new CountDownLatch(1);
+        feed.subscribe(null);
+
+        // one change is stuck in send, the queue holds two more, the next one overflows it
+        publish(4);
+
+        Assertions.assertTrue(emitter.completed);
+        emitter.release.countDown();
+        publish(1);
+        Thread.sleep(100);
+        Assertions.assertFalse(emitter.events().contains("sock-change:5"));
+    }
+
+    @Test
+    void testResetDuringDrainIsSentInsteadOfQueuedChanges() throws InterruptedException {
+        emitter.release = new CountDownLatch(1);
+        feed.subscribe(null);
+        publish(2);
+        Thread.sleep(100);
+
+        // change 1 is stuck in send, change 2 is queued when the reset comes in
+        feed.resetAll();
+        emitter.release.countDown();
+        publish(1);
+
+        emitter.awaitEvents(3);
+        Assertions.assertEquals(List.of("sock-change:1", "reset:2", "sock-change:3"), emitter.events());
+    }
+
+    @Test
+    void testChangesArePublishedOnlyAfterCommit() throws InterruptedException {
+        try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()) {
+            context.register(TransactionalEvents.class);
+            context.registerBean(SockChangeFeed.class, () -> feed);
+            context.refresh();
+            feed.subscribe(null);
+
+            inTransaction(context, TransactionSynchronization.STATUS_ROLLED_BACK, 1);
+            Assertions.assertTrue(emitter.events().isEmpty());
+            inTransaction(context, TransactionSynchronization.STATUS_COMMITTED, 2);
+
+            emitter.awaitEvents(1);
+            Assertions.assertEquals(List.of("sock-change:1"), emitter.events());
+            Assertions.assertTrue(emitter.data.get(0).contains("newCount=2"));
+        }
+    }
+
+    private void publish(int changes) {
+        for (int i = 0; i < changes; i++) {
+            feed.onSockChanged(new SockChangedEvent(1L, "Red", 50.0, i, i + 1, 1));
+        }
+    }
+
+    private static void inTransaction(AnnotationConfigApplicationContext context, int completionStatus, int newCount) {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            context.publishEvent(new SockChangedEvent(1L, "Red", 50.0, 0, newCount, 1));
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, completionStatus);
+        } finally {
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private SockChangeFeed feed(SseEmitter subscriberEmitter) {
+        return new SockChangeFeed(properties) {
+
+            @Override
+            SseEmitter createEmitter() {
+                return subscriberEmitter;
+            }
+        };
+    }
+
+    @Configuration
+    @EnableTransactionManagement
+    static class TransactionalEvents {
+    }
+
+    private static final class RecordingEmitter extends SseEmitter {
+
+        private final List<String> names = new CopyOnWriteArrayList<>();
+
+        private final List<String> data = new CopyOnWriteArrayList<>();
+
+        private volatile CountDownLatch release = new CountDownLatch(0);
+
+        private volatile boolean completed;
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            String event = builder.build().stream()
+                    .map(part -> String.valueOf(part.getData()))
+                    .collect(Collectors.joining());
+            String name = event.substring(event.indexOf("event:") + 6, event.indexOf('\n', event.indexOf("event:")));
+            String id = event.substring(event.indexOf("id:") + 3, event.indexOf('\n', event.indexOf("id:")));
+            names.add(name + ":" + id);
+            data.add(event);
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+
+        private List<String> events() {
+            return List.copyOf(names);
+        }
+
+        private void awaitEvents(int count) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (names.size() < count && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            Thread.sleep(50);
+        }
+    }
+}
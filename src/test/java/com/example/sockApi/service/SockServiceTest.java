@@ -1,12 +1,15 @@
 package com.example.sockApi.service;
 
 import com.example.sockApi.dto.SockDto;
+import com.example.sockApi.entity.Color;
 import com.example.sockApi.entity.Sock;
+import com.example.sockApi.event.SockChangedEvent;
 import com.example.sockApi.exception.BusinessException;
 import com.example.sockApi.exception.TechnicalException;
 import com.example.sockApi.repository.SockRepository;
 import com.example.sockApi.repository.specifications.SpecificationBuilder;
 import com.example.sockApi.utils.MappingUtils;
+import com.example.sockApi.web.WarehouseContext;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -14,6 +17,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.mock.web.MockMultipartFile;
 
@@ -39,17 +43,27 @@ class SockServiceTest {
     @Mock
     private SpecificationBuilder<Sock> specificationBuilder;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ColorDictionary colorDictionary;
+
+    @Mock
+    private HotKeyTracker hotKeyTracker;
+
     @Test
     void testAddSocks_Success_NewSock() throws BusinessException {
         Sock newSock = new Sock();
         newSock.setId(1L);
-        newSock.setColor("Red");
-        newSock.setCottonPercentage(50.0);
-        newSock.setCount(100);
-
-        Mockito.when(sockRepository.findByColorAndCottonPercentage("Red", 50.0))
-                .thenReturn(Optional.empty());
-        Mockito.when(sockRepository.save(Mockito.any(Sock.class))).thenReturn(newSock);
+        newSock.setColor(new Color(1, "Red", "red"));
+        newSock.setCottonBasisPoints(5000);
+        newSock.setCount(0);
+
+        Mockito.when(colorDictionary.resolveId("Red")).thenReturn(1);
+        Mockito.when(sockRepository.findByWarehouseIdAndColorIdAndCottonBasisPoints(1, 1, 5000))
+                .thenReturn(Optional.empty(), Optional.of(newSock));
+        Mockito.when(sockRepository.save(newSock)).thenReturn(newSock);
         Mockito.when(mappingUtils.mapToSockDto(newSock))
                 .thenReturn(new SockDto(1L, "Red", 50.0, 100));
 
@@ -61,8 +75,34 @@ class SockServiceTest {
         Assertions.assertEquals(50.0, result.getCottonPercentage());
         Assertions.assertEquals(100, result.getCount());
 
-        Mockito.verify(sockRepository).findByColorAndCottonPercentage("Red", 50.0);
-        Mockito.verify(sockRepository).save(Mockito.any(Sock.class));
+        Assertions.assertEquals(100, newSock.getCount());
+        Mockito.verify(sockRepository).insertIfAbsent(1, 1, 5000);
+        Mockito.verify(sockRepository, Mockito.times(2)).findByWarehouseIdAndColorIdAndCottonBasisPoints(1, 1, 5000);
+        Mockito.verify(sockRepository).save(newSock);
+    }
+
+    @Test
+    void testAddSocks_ConcurrentFirstIncomeAddsToTheInsertedRow() throws BusinessException {
+        Sock insertedSock = new Sock();
+        insertedSock.setId(1L);
+        insertedSock.setColor(new Color(1, "Red", "red"));
+        insertedSock.setCottonBasisPoints(5000);
+        insertedSock.setCount(30);
+
+        // the other income inserted the row between the lookup and the insert, which then did nothing
+        Mockito.when(colorDictionary.resolveId("Red")).thenReturn(1);
+        Mockito.when(sockRepository.findByWarehouseIdAndColorIdAndCottonBasisPoints(1, 1, 5000))
+                .thenReturn(Optional.empty(), Optional.of(insertedSock));
+        Mockito.when(sockRepository.save(insertedSock)).thenReturn(insertedSock);
+        Mockito.when(mappingUtils.mapToSockDto(insertedSock))
+                .thenReturn(new SockDto(1L, "Red", 50.0, 130));
+
+        SockDto result = sockService.addSocks("Red", 50.0, 100);
+
+        Assertions.assertEquals(130, result.getCount());
+        Assertions.assertEquals(130, insertedSock.getCount());
+        Mockito.verify(eventPublisher).publishEvent(Mockito.<SockChangedEvent>argThat(event ->
+                event.getOldCount() == 30 && event.getNewCount() == 130));
     }
 
     @Test
@@ -86,11 +126,12 @@ class SockServiceTest {
     void testRemoveSocks_Success() throws BusinessException {
         Sock existingSock = new Sock();
         existingSock.setId(1L);
-        existingSock.setColor("Blue");
-        existingSock.setCottonPercentage(60.0);
+        existingSock.setColor(new Color(2, "Blue", "blue"));
+        existingSock.setCottonBasisPoints(6000);
         existingSock.setCount(100);
 
-        Mockito.when(sockRepository.findByColorAndCottonPercentage("Blue", 60.0))
+        Mockito.when(colorDictionary.findId("Blue")).thenReturn(Optional.of(2));
+        Mockito.when(sockRepository.findByWarehouseIdAndColorIdAndCottonBasisPoints(1, 2, 6000))
                 .thenReturn(Optional.of(existingSock));
         Mockito.when(sockRepository.save(Mockito.any(Sock.class))).thenReturn(existingSock);
         Mockito.when(mappingUtils.mapToSockDto(existingSock))
@@ -101,19 +142,21 @@ class SockServiceTest {
         Assertions.assertNotNull(result);
         Assertions.assertEquals(80, result.getCount());
 
-        Mockito.verify(sockRepository).findByColorAndCottonPercentage("Blue", 60.0);
+        Mockito.verify(sockRepository).findByWarehouseIdAndColorIdAndCottonBasisPoints(1, 2, 6000);
         Mockito.verify(sockRepository).save(existingSock);
+        Mockito.verify(hotKeyTracker).recordWrite("Blue", 60.0);
     }
 
     @Test
     void testRemoveSocks_BusinessException_NotEnoughStock() {
         Sock existingSock = new Sock();
         existingSock.setId(1L);
-        existingSock.setColor("Blue");
-        existingSock.setCottonPercentage(60.0);
+        existingSock.setColor(new Color(2, "Blue", "blue"));
+        existingSock.setCottonBasisPoints(6000);
         existingSock.setCount(10);
 
-        Mockito.when(sockRepository.findByColorAndCottonPercentage("Blue", 60.0))
+        Mockito.when(colorDictionary.findId("Blue")).thenReturn(Optional.of(2));
+        Mockito.when(sockRepository.findByWarehouseIdAndColorIdAndCottonBasisPoints(1, 2, 6000))
                 .thenReturn(Optional.of(existingSock));
 
         BusinessException exception = Assertions.assertThrows(
@@ -123,22 +166,47 @@ class SockServiceTest {
 
         Assertions.assertTrue(exception.getMessage().contains("the required socks are not in stock"));
 
-        Mockito.verify(sockRepository).findByColorAndCottonPercentage("Blue", 60.0);
+        Mockito.verify(sockRepository).findByWarehouseIdAndColorIdAndCottonBasisPoints(1, 2, 6000);
         Mockito.verifyNoMoreInteractions(sockRepository);
+        Mockito.verifyNoInteractions(hotKeyTracker);
+    }
+
+    @Test
+    void testRemoveSocks_BusinessException_InvalidCottonPercentage() {
+        BusinessException exception = Assertions.assertThrows(BusinessException.class,
+                () -> sockService.removeSocks("Blue", Double.NaN, 20));
+
+        Assertions.assertEquals("Sock outcome error - cotton percentage should be 0-100 (passed value is NaN)",
+                exception.getMessage());
+        Mockito.verifyNoInteractions(colorDictionary, sockRepository);
+    }
+
+    @Test
+    void testGetSocksByFilters_OutOfRangeCottonPercentage() {
+        IllegalArgumentException exception = Assertions.assertThrows(IllegalArgumentException.class,
+                () -> sockService.getSocksByFilters(null, null, 1e10, null));
+
+        Assertions.assertTrue(exception.getMessage().startsWith("Filter error - cotton percentage should be 0-100"));
+        Mockito.verifyNoInteractions(sockRepository);
     }
 
     @Test
     void testUpdateSocks_Success() throws BusinessException {
         Sock existingSock = new Sock();
         existingSock.setId(1L);
+        existingSock.setColor(new Color(3, "Green", "green"));
+        existingSock.setCottonBasisPoints(5000);
+        existingSock.setCount(10);
+        existingSock.setWarehouseId(1);
 
         Sock updatedSock = new Sock();
         updatedSock.setId(1L);
-        updatedSock.setColor("Green");
-        updatedSock.setCottonPercentage(70.0);
+        updatedSock.setColor(new Color(3, "Green", "green"));
+        updatedSock.setCottonBasisPoints(7000);
         updatedSock.setCount(200);
 
         Mockito.when(sockRepository.findById(1L)).thenReturn(Optional.of(existingSock));
+        Mockito.when(colorDictionary.resolveId("Green")).thenReturn(3);
         Mockito.when(sockRepository.save(Mockito.any(Sock.class))).thenReturn(updatedSock);
         Mockito.when(mappingUtils.mapToSockDto(updatedSock))
                 .thenReturn(new SockDto(1L, "Green", 70.0, 200));
@@ -169,6 +237,31 @@ class SockServiceTest {
         Mockito.verifyNoMoreInteractions(sockRepository);
     }
 
+    @Test
+    void testUpdateSocks_BusinessException_OtherWarehouse() {
+        Sock existingSock = new Sock();
+        existingSock.setId(1L);
+        existingSock.setColor(new Color(3, "Green", "green"));
+        existingSock.setCottonBasisPoints(5000);
+        existingSock.setCount(10);
+        existingSock.setWarehouseId(1);
+
+        Mockito.when(sockRepository.findById(1L)).thenReturn(Optional.of(existingSock));
+
+        WarehouseContext.set(2);
+        try {
+            BusinessException exception = Assertions.assertThrows(
+                    BusinessException.class,
+                    () -> sockService.updateSocks(1L, "Green", 70.0, 200)
+            );
+
+            Assertions.assertTrue(exception.getMessage().contains("missing items with the passed Id: 1 in warehouse 2"));
+            Mockito.verify(sockRepository, Mockito.never()).save(Mockito.any(Sock.class));
+        } finally {
+            WarehouseContext.clear();
+        }
+    }
+
     @Test
     void testProcessFileCsv_Success() throws BusinessException, TechnicalException {
         MockMultipartFile mockFile = new MockMultipartFile(
@@ -176,13 +269,15 @@ class SockServiceTest {
                 "red,50.0,100\nblue,75.0,50".getBytes()
         );
 
-        Mockito.when(sockRepository.findByColorAndCottonPercentage(Mockito.anyString(), Mockito.anyDouble()))
-                .thenReturn(Optional.empty());
-
+        Mockito.when(colorDictionary.resolveId(Mockito.anyString())).thenReturn(1, 2);
         Sock sock1 = new Sock();
         sock1.setId(1L);
+        sock1.setCount(0);
         Sock sock2 = new Sock();
         sock2.setId(2L);
+        sock2.setCount(0);
+        Mockito.when(sockRepository.findByWarehouseIdAndColorIdAndCottonBasisPoints(Mockito.anyInt(), Mockito.anyInt(), Mockito.anyInt()))
+                .thenReturn(Optional.empty(), Optional.of(sock1), Optional.empty(), Optional.of(sock2));
 
         Mockito.when(sockRepository.save(Mockito.any(Sock.class))).thenReturn(sock1, sock2);
         Mockito.when(mappingUtils.mapToSockDto(Mockito.any(Sock.class)))
@@ -200,26 +295,18 @@ class SockServiceTest {
     @Test
     void testGetSocksCount() {
         String color = "red";
+        Color red = new Color(1, color, color);
         double cottonPercentage = 75.0;
         List<Sock> socks = List.of(
-                new Sock(1L, color, cottonPercentage, 100),
-                new Sock(2L, color, cottonPercentage, 150)
-        );
-
-        List<SockDto> sockDtos = List.of(
-                new SockDto(1L, color, cottonPercentage, 100),
-                new SockDto(2L, color, cottonPercentage, 150)
+                new Sock(1L, red, 7500, 100, 1),
+                new Sock(2L, red, 7500, 150, 1)
         );
 
         Specification<Sock> specification = mock(Specification.class);
 
+        Mockito.when(colorDictionary.findId(color)).thenReturn(Optional.of(1));
         Mockito.when(specificationBuilder.build(Mockito.anyList())).thenReturn(specification);
         Mockito.when(sockRepository.findAll(specification)).thenReturn(socks);
-        Mockito.when(mappingUtils.mapToSockDto(Mockito.any(Sock.class)))
-                .thenAnswer(invocation -> {
-                    Sock sock = invocation.getArgument(0);
-                    return new SockDto(sock.getId(), sock.getColor(), sock.getCottonPercentage(), sock.getCount());
-                });
 
         Integer totalCount = sockService.getSocksCount(color, cottonPercentage, null, null);
 
@@ -227,7 +314,7 @@ class SockServiceTest {
 
         Mockito.verify(specificationBuilder).build(Mockito.anyList());
         Mockito.verify(sockRepository).findAll(specification);
-        Mockito.verify(mappingUtils, Mockito.times(2)).mapToSockDto(Mockito.any(Sock.class));
+        Mockito.verifyNoInteractions(mappingUtils);
     }
 
     @Test
@@ -236,9 +323,10 @@ class SockServiceTest {
         Double minCottonPercentage = 40.0;
         Double maxCottonPercentage = 60.0;
 
+        Color blue = new Color(2, color, color);
         List<Sock> socks = List.of(
-                new Sock(1L, color, 50.0, 100),
-                new Sock(2L, color, 45.0, 150)
+                new Sock(1L, blue, 5000, 100, 1),
+                new Sock(2L, blue, 4500, 150, 1)
         );
 
         List<SockDto> sockDtos = List.of(
@@ -248,12 +336,13 @@ class SockServiceTest {
 
         Specification<Sock> specification = mock(Specification.class);
 
+        Mockito.when(colorDictionary.findId(color)).thenReturn(Optional.of(2));
         Mockito.when(specificationBuilder.build(Mockito.anyList())).thenReturn(specification);
         Mockito.when(sockRepository.findAll(specification)).thenReturn(socks);
         Mockito.when(mappingUtils.mapToSockDto(Mockito.any(Sock.class)))
                 .thenAnswer(invocation -> {
                     Sock sock = invocation.getArgument(0);
-                    return new SockDto(sock.getId(), sock.getColor(), sock.getCottonPercentage(), sock.getCount());
+                    return new SockDto(sock.getId(), sock.getColor().getName(), sock.getCottonBasisPoints() / 100.0, sock.getCount());
                 });
 
         List<SockDto> result = sockService.getSocksByFilters(color, null, minCottonPercentage, maxCottonPercentage);
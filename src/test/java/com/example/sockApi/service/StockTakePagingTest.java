@@ -0,0 +1,106 @@
+package com.example.sockApi.service;
+
+import com.example.sockApi.dto.StockTakeReportDto;
+import com.example.sockApi.exception.BusinessException;
+import com.example.sockApi.exception.TechnicalException;
+import com.example.sockApi.repository.SockRepository;
+import com.example.sockApi.repository.StockTakeRow;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+// the real schema with pages of two rows, smaller than the stock of the warehouse and than the stock of one color
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:stock_take_home;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.jpa.database-platform=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.show-sql=false",
+        "sock.rate-limit.enabled=false",
+        "sock.batch.chunk-size=2"
+})
+class StockTakePagingTest {
+
+    // a linguistic collation ignores the space and the hyphen, String.compareTo puts ' ' before '-' before 'b'
+    private static final String COUNTED = "navy blue,20,4\n"
+            + "navy blue,30,5\n"
+            + "navy blue,40,6\n"
+            + "navy-blue,50,7\n"
+            + "navyblue,10,8\n"
+            + "red,40,9\n";
+
+    @Autowired
+    private StockTakeService stockTakeService;
+
+    @Autowired
+    private SockService sockService;
+
+    @Autowired
+    private SockRepository sockRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() throws BusinessException {
+        jdbcTemplate.update("DELETE FROM socks");
+        sockService.addSocks("Red", 40.0, 9);
+        sockService.addSocks("Navyblue", 10.0, 8);
+        sockService.addSocks("Navy-Blue", 50.0, 7);
+        sockService.addSocks("Navy Blue", 40.0, 6);
+        sockService.addSocks("Navy Blue", 20.0, 4);
+        sockService.addSocks("Navy Blue", 30.0, 5);
+    }
+
+    @Test
+    void testPagesOfOneColorFollowEachOther() {
+        List<StockTakeRow> first = sockRepository.findPageOfColor(1, "navy blue", -1, 2);
+        List<StockTakeRow> second = sockRepository.findPageOfColor(1, "navy blue", first.get(1).getCotton(), 2);
+
+        Assertions.assertEquals(List.of(2000, 3000), first.stream().map(StockTakeRow::getCotton).toList());
+        Assertions.assertEquals(List.of(4000), second.stream().map(StockTakeRow::getCotton).toList());
+    }
+
+    @Test
+    void testMatchingFileReportsNoDifferences() throws BusinessException, TechnicalException {
+        StockTakeReportDto report = stockTakeService.reconcile(file(COUNTED), true);
+
+        Assertions.assertEquals(6L, report.getRows());
+        Assertions.assertEquals(6L, report.getUnchanged());
+        Assertions.assertEquals(0L, report.getAdded());
+        Assertions.assertEquals(0L, report.getZeroed());
+        Assertions.assertEquals(39L, report.getCountBefore());
+        Assertions.assertTrue(report.getDifferences().isEmpty());
+    }
+
+    @Test
+    void testDifferencesAcrossPagesAreApplied() throws BusinessException, TechnicalException {
+        String counted = COUNTED.replace("navy blue,40,6\n", "").replace("navyblue,10,8", "navyblue,10,3");
+
+        StockTakeReportDto report = stockTakeService.reconcile(file(counted), false);
+
+        Assertions.assertEquals(1L, report.getUpdated());
+        Assertions.assertEquals(1L, report.getZeroed());
+        Assertions.assertEquals(2L, report.getApplied());
+        Assertions.assertEquals(List.of("red:4000:9", "navyblue:1000:3", "navy-blue:5000:7", "navy blue:4000:0",
+                "navy blue:2000:4", "navy blue:3000:5"), stock());
+    }
+
+    private List<String> stock() {
+        return jdbcTemplate.query("SELECT c.normalized_name, s.cotton_basis_points, s.count "
+                        + "FROM socks s JOIN colors c ON c.id = s.color_id ORDER BY s.id",
+                (resultSet, rowNum) -> resultSet.getString(1) + ":" + resultSet.getInt(2) + ":" + resultSet.getInt(3));
+    }
+
+    private static MockMultipartFile file(String content) {
+        return new MockMultipartFile("file", "stock-take.csv", "text/csv", content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.sockApi.service;
+
+import com.example.sockApi.config.BatchProperties;
+import com.example.sockApi.dto.SockDto;
+import com.example.sockApi.dto.StockTakeReportDto;
+import com.example.sockApi.event.SockChangedEvent;
+import com.example.sockApi.exception.BusinessException;
+import com.example.sockApi.exception.TechnicalException;
+import com.example.sockApi.repository.SockRepository;
+import com.example.sockApi.repository.StockTakeRow;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+
+@ExtendWith(MockitoExtension.class)
+class StockTakeServiceTest {
+
+    @Mock
+    private SockRepository sockRepository;
+
+    @Mock
+    private SockService sockService;
+
+    @Mock
+    private ColorDictionary colorDictionary;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private StockTakeService stockTakeService;
+
+    @BeforeEach
+    void setUp() {
+        BatchProperties properties = new BatchProperties();
+        properties.setChunkSize(2);
+        properties.setMaxReportedDifferences(10);
+        stockTakeService = new StockTakeService(sockRepository, sockService, colorDictionary, eventPublisher,
+                properties, transactionManager);
+    }
+
+    @Test
+    void testDryRunReportsDifferencesWithoutWriting() throws BusinessException, TechnicalException {
+        stock(row(1L, "Blue", 5000, 10), row(2L, "Red", 5000, 7), row(3L, "Red", 7500, 4));
+
+        StockTakeReportDto report = stockTakeService.reconcile(file("blue,50,10\ngreen,20,3\nred,50,9\n"), true);
+
+        Assertions.assertEquals(3L, report.getRows());
+        Assertions.assertEquals(1L, report.getUnchanged());
+        Assertions.assertEquals(1L, report.getUpdated());
+        Assertions.assertEquals(1L, report.getAdded());
+        Assertions.assertEquals(1L, report.getZeroed());
+        Assertions.assertEquals(0L, report.getApplied());
+        Assertions.assertEquals(21L, report.getCountBefore());
+        Assertions.assertEquals(22L, report.getCountAfter());
+        Assertions.assertEquals(3, report.getDifferences().size());
+        Assertions.assertEquals("green", report.getDifferences().get(0).getColor());
+        Assertions.assertEquals(75.0, report.getDifferences().get(2).getCottonPercentage());
+        Assertions.assertEquals(0, report.getDifferences().get(2).getNewCount());
+        Mockito.verify(sockRepository, Mockito.never()).updateCountIfUnchanged(Mockito.anyLong(), Mockito.anyInt(), Mockito.anyInt());
+        Mockito.verifyNoInteractions(sockService, eventPublisher);
+        // the color list and the three pages are read on the primary
+        Mockito.verify(transactionManager, Mockito.times(4)).getTransaction(Mockito.argThat(definition -> !definition.isReadOnly()));
+    }
+
+    @Test
+    void testAppliesOnlyChangedRowsAndReportsConflicts() throws BusinessException, TechnicalException {
+        stock(row(1L, "Blue", 5000, 10), row(2L, "Red", 5000, 7), row(3L, "Red", 7500, 4));
+        Mockito.when(sockRepository.updateCountIfUnchanged(2L, 7, 9)).thenReturn(1);
+        Mockito.when(sockRepository.updateCountIfUnchanged(3L, 4, 0)).thenReturn(0);
+        Mockito.when(colorDictionary.findId("green")).thenReturn(Optional.empty());
+        Mockito.when(sockService.addSocks("green", 20.0, 3)).thenReturn(new SockDto(4L, "green", 20.0, 3));
+
+        StockTakeReportDto report = stockTakeService.reconcile(file("blue,50,10\ngreen,20,3\nred,50,9\n"), false);
+
+        Assertions.assertEquals(2L, report.getApplied());
+        Assertions.assertEquals(1L, report.getConflicts());
+        Mockito.verify(sockRepository, Mockito.never()).updateCountIfUnchanged(Mockito.eq(1L), Mockito.anyInt(), Mockito.anyInt());
+        Mockito.verify(eventPublisher).publishEvent(Mockito.any(SockChangedEvent.class));
+        Mockito.verify(transactionManager, Mockito.times(2)).getTransaction(Mockito.argThat(definition ->
+                definition.getPropagationBehavior() == TransactionDefinition.PROPAGATION_REQUIRES_NEW));
+        Mockito.verify(transactionManager, Mockito.never()).getTransaction(Mockito.argThat(TransactionDefinition::isReadOnly));
+    }
+
+    @Test
+    void testUnsortedFileIsRejectedBeforeAnyWrite() {
+        BusinessException exception = Assertions.assertThrows(BusinessException.class,
+                () -> stockTakeService.reconcile(file("red,50,9\nblue,50,10\n"), false));
+
+        Assertions.assertTrue(exception.getMessage().contains("line 2"));
+        Mockito.verifyNoInteractions(sockRepository, transactionManager);
+    }
+
+    // chunk size 2: the colors come unsorted from the database, the full page of red is followed by an empty one
+    private void stock(StockTakeRow blue, StockTakeRow red, StockTakeRow secondRed) {
+        Mockito.when(sockRepository.findColorsInWarehouse(1)).thenReturn(List.of("red", "blue"));
+        Mockito.when(sockRepository.findPageOfColor(1, "blue", -1, 2)).thenReturn(List.of(blue));
+        Mockito.when(sockRepository.findPageOfColor(1, "red", -1, 2)).thenReturn(List.of(red, secondRed));
+        Mockito.when(sockRepository.findPageOfColor(1, "red", secondRed.getCotton(), 2)).thenReturn(List.of());
+    }
+
+    private static MockMultipartFile file(String content) {
+        return new MockMultipartFile("file", "stock-take.csv", "text/csv", content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static StockTakeRow row(Long id, String name, int cottonBasisPoints, int count) {
+        return new StockTakeRow() {
+
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public String getNormalized() {
+                return name.toLowerCase();
+            }
+
+            @Override
+            public Integer getCotton() {
+                return cottonBasisPoints;
+            }
+
+            @Override
+            public Integer getCount() {
+                return count;
+            }
+        };
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.sockApi.service;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+class WindowedCountMinSketchTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void testEstimatesNeverUndercount() {
+        WindowedCountMinSketch sketch = new WindowedCountMinSketch(4, 64, 6, 60 * SECOND);
+        long now = 1_000 * SECOND;
+
+        for (int key = 0; key < 1_000; key++) {
+            for (int i = 0; i <= key % 5; i++) {
+                sketch.increment("key-" + key, now);
+            }
+        }
+        for (int i = 0; i < 500; i++) {
+            sketch.increment("hot", now);
+        }
+
+        for (int key = 0; key < 1_000; key++) {
+            Assertions.assertTrue(sketch.estimateCount("key-" + key, now) >= key % 5 + 1);
+        }
+        long hot = sketch.estimateCount("hot", now);
+        Assertions.assertTrue(hot >= 500 && hot < 700, "hot key estimate " + hot);
+    }
+
+    @Test
+    void testOldBucketsLeaveTheWindow() {
+        WindowedCountMinSketch sketch = new WindowedCountMinSketch(4, 64, 6, 60 * SECOND);
+        long start = 1_000 * SECOND;
+
+        sketch.increment("red:50.0", start);
+        sketch.addWait("red:50.0", 40_000_000L, start);
+        sketch.increment("red:50.0", start + 30 * SECOND);
+
+        Assertions.assertEquals(2, sketch.estimateCount("red:50.0", start + 59 * SECOND));
+        Assertions.assertEquals(40_000_000L, sketch.estimateWaitNanos("red:50.0", start + 59 * SECOND));
+        Assertions.assertEquals(1, sketch.estimateCount("red:50.0", start + 61 * SECOND));
+        Assertions.assertEquals(0, sketch.estimateWaitNanos("red:50.0", start + 61 * SECOND));
+        Assertions.assertTrue(sketch.increment("red:50.0", start + 120 * SECOND));
+        Assertions.assertEquals(1, sketch.estimateCount("red:50.0", start + 120 * SECOND));
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.sockApi.snapshot;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+class MappedSnapshotTest {
+
+    private static final List<SnapshotColor> COLORS = List.of(
+            new SnapshotColor(1, "Red", "red"),
+            new SnapshotColor(2, "Gr\u00fcn", "gr\u00fcn"));
+
+    private static final List<SnapshotRecord> RECORDS = List.of(
+            new SnapshotRecord(1L, 1, 1, 5000, 10),
+            new SnapshotRecord(2L, 1, 2, 5625, 0),
+            new SnapshotRecord(7L, 2, 1, 10000, 42));
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testWrittenSnapshotIsReadBack() throws IOException {
+        Path file = directory.resolve("inventory.snap");
+
+        SnapshotHeader written = SnapshotWriter.write(file, "north", COLORS, RECORDS.iterator());
+        MappedSnapshot snapshot = MappedSnapshot.open(file);
+
+        Assertions.assertEquals(written, snapshot.header());
+        Assertions.assertEquals("north", snapshot.header().shard());
+        Assertions.assertEquals(Files.size(file), snapshot.header().fileBytes());
+        Assertions.assertEquals(COLORS, snapshot.colors());
+        Assertions.assertEquals(RECORDS, snapshot.records().toList());
+        Assertions.assertEquals(RECORDS.get(2), snapshot.record(2));
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> snapshot.record(3));
+        try (var files = Files.list(directory)) {
+            Assertions.assertEquals(List.of(file), files.toList());
+        }
+    }
+
+    @Test
+    void testCorruptedRecordIsDetected() throws IOException {
+        Path file = directory.resolve("inventory.snap");
+        SnapshotWriter.write(file, "north", COLORS, RECORDS.iterator());
+        try (RandomAccessFile raw = new RandomAccessFile(file.toFile(), "rw")) {
+            long lastCount = raw.length() - 1;
+            raw.seek(lastCount);
+            int value = raw.read();
+            raw.seek(lastCount);
+            raw.write(value ^ 1);
+        }
+
+        InvalidSnapshotException exception = Assertions.assertThrows(InvalidSnapshotException.class,
+                () -> MappedSnapshot.open(file));
+
+        Assertions.assertTrue(exception.getMessage().contains("checksum"));
+    }
+
+    @Test
+    void testTruncatedFileIsDetected() throws IOException {
+        Path file = directory.resolve("inventory.snap");
+        SnapshotWriter.write(file, "north", COLORS, RECORDS.iterator());
+        try (RandomAccessFile raw = new RandomAccessFile(file.toFile(), "rw")) {
+            raw.setLength(raw.length() - SnapshotHeader.RECORD_SIZE);
+        }
+
+        InvalidSnapshotException exception = Assertions.assertThrows(InvalidSnapshotException.class,
+                () -> MappedSnapshot.open(file));
+
+        Assertions.assertTrue(exception.getMessage().contains("the header expects"));
+    }
+
+    @Test
+    void testShardNameThatDoesNotFitTheHeaderIsRejected() throws IOException {
+        Path file = directory.resolve("inventory.snap");
+
+        Assertions.assertThrows(IOException.class,
+                () -> SnapshotWriter.write(file, "x".repeat(SnapshotHeader.MAX_SHARD_BYTES + 1), COLORS, RECORDS.iterator()));
+        try (var files = Files.list(directory)) {
+            Assertions.assertEquals(List.of(), files.toList());
+        }
+    }
+
+    @Test
+    void testOtherFilesAreRejected() throws IOException {
+        Path file = Files.writeString(directory.resolve("notes.snap"),
+                "just some text that is long enough for a snapshot header of eighty bytes, but has no magic");
+
+        InvalidSnapshotException exception = Assertions.assertThrows(InvalidSnapshotException.class,
+                () -> MappedSnapshot.open(file));
+
+        Assertions.assertTrue(Files.size(file) >= SnapshotHeader.SIZE);
+        Assertions.assertTrue(exception.getMessage().contains("not an inventory snapshot"));
+    }
+}
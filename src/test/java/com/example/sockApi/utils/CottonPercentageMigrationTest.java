@@ -0,0 +1,51 @@
+package com.example.sockApi.utils;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+class CottonPercentageMigrationTest {
+
+    // half-way values, doubles just below a half (1.005 is stored as 1.00499999...) and the range ends
+    private static final double[] PERCENTAGES = {0.0, 0.005, 0.015, 1.005, 12.345, 56.0000001, 56.125, 56.1249,
+            99.994, 99.995, 100.0};
+
+    private final DataSource dataSource = new DriverManagerDataSource(
+            "jdbc:h2:mem:cotton_migration;MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+
+    @Test
+    void testMigratedRowsRoundLikeNewWrites() {
+        migrateTo("1");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        for (int i = 0; i < PERCENTAGES.length; i++) {
+            jdbcTemplate.update("INSERT INTO socks (color, cotton_percentage, count) VALUES (?, ?, 1)",
+                    "color-" + i, PERCENTAGES[i]);
+        }
+
+        migrateTo("3");
+
+        Map<String, Integer> basisPointsByColor = new HashMap<>();
+        jdbcTemplate.query("SELECT c.name, s.cotton_basis_points FROM socks s JOIN colors c ON c.id = s.color_id",
+                resultSet -> {
+                    basisPointsByColor.put(resultSet.getString(1), resultSet.getInt(2));
+                });
+        for (int i = 0; i < PERCENTAGES.length; i++) {
+            Assertions.assertEquals(CottonPercentageUtils.toBasisPoints(PERCENTAGES[i]), basisPointsByColor.get("color-" + i),
+                    "cotton percentage " + PERCENTAGES[i]);
+        }
+    }
+
+    private void migrateTo(String version) {
+        Flyway.configure()
+                .dataSource(dataSource)
+                .target(version)
+                .load()
+                .migrate();
+    }
+}
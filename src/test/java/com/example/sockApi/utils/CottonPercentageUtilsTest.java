@@ -0,0 +1,37 @@
+package com.example.sockApi.utils;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.math.RoundingMode;
+
+class CottonPercentageUtilsTest {
+
+    @Test
+    void testToBasisPoints_RoundsHalfUpToHundredths() {
+        Assertions.assertEquals(5600, CottonPercentageUtils.toBasisPoints(56.0));
+        Assertions.assertEquals(5600, CottonPercentageUtils.toBasisPoints(56.0000001));
+        Assertions.assertEquals(5613, CottonPercentageUtils.toBasisPoints(56.125));
+        Assertions.assertEquals(5612, CottonPercentageUtils.toBasisPoints(56.1249));
+        Assertions.assertEquals(0, CottonPercentageUtils.toBasisPoints(0.0));
+        Assertions.assertEquals(CottonPercentageUtils.MAX_BASIS_POINTS, CottonPercentageUtils.toBasisPoints(100.0));
+    }
+
+    @Test
+    void testToBasisPoints_RangeBoundsRoundInwards() {
+        Assertions.assertEquals(5001, CottonPercentageUtils.toBasisPoints(50.004, RoundingMode.CEILING));
+        Assertions.assertEquals(5000, CottonPercentageUtils.toBasisPoints(50.0, RoundingMode.CEILING));
+        Assertions.assertEquals(5000, CottonPercentageUtils.toBasisPoints(50.006, RoundingMode.FLOOR));
+        Assertions.assertEquals(5000, CottonPercentageUtils.toBasisPoints(50.0, RoundingMode.FLOOR));
+    }
+
+    @Test
+    void testToBasisPoints_NullStaysNull() {
+        Assertions.assertNull(CottonPercentageUtils.toBasisPoints((Double) null));
+    }
+
+    @Test
+    void testToPercentage() {
+        Assertions.assertEquals(56.13, CottonPercentageUtils.toPercentage(5613));
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.sockApi.web;
+
+import com.example.sockApi.config.RateLimitProperties;
+import com.example.sockApi.enums.EndpointGroup;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+class RateLimiterTest {
+
+    @Test
+    void testGlobalRejectionDoesNotChargeTheClient() throws InterruptedException {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setWrite(new RateLimitProperties.Group(new RateLimitProperties.Limit(1, 20),
+                new RateLimitProperties.Limit(1, 0.001)));
+        RateLimiter rateLimiter = new RateLimiter(properties);
+
+        Assertions.assertEquals(0, rateLimiter.tryAcquire(EndpointGroup.WRITE, "10.0.0.1"));
+        Assertions.assertTrue(rateLimiter.tryAcquire(EndpointGroup.WRITE, "10.0.0.2") > 0);
+        Thread.sleep(100);
+
+        // the global bucket has refilled, the client bucket of the rejected request was never charged
+        Assertions.assertEquals(0, rateLimiter.tryAcquire(EndpointGroup.WRITE, "10.0.0.2"));
+    }
+
+    @Test
+    void testClientsBeyondTheLimitShareOneBucket() {
+        RateLimitProperties properties = new RateLimitProperties();
+        properties.setMaxClients(2);
+        properties.setWrite(new RateLimitProperties.Group(new RateLimitProperties.Limit(100, 100),
+                new RateLimitProperties.Limit(1, 0.001)));
+        RateLimiter rateLimiter = new RateLimiter(properties);
+
+        Assertions.assertEquals(0, rateLimiter.tryAcquire(EndpointGroup.WRITE, "client-1"));
+        Assertions.assertEquals(0, rateLimiter.tryAcquire(EndpointGroup.WRITE, "client-2"));
+        Assertions.assertEquals(0, rateLimiter.tryAcquire(EndpointGroup.WRITE, "client-3"));
+
+        // rotating ids does not buy new buckets once the map is full
+        Assertions.assertTrue(rateLimiter.tryAcquire(EndpointGroup.WRITE, "client-4") > 0);
+        Assertions.assertTrue(rateLimiter.tryAcquire(EndpointGroup.WRITE, "client-5") > 0);
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.sockApi.web;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void testBurstUpToCapacity() {
+        TokenBucket bucket = new TokenBucket(3, 1);
+        long now = 1_000 * SECOND;
+
+        Assertions.assertEquals(0, bucket.tryAcquire(now));
+        Assertions.assertEquals(0, bucket.tryAcquire(now));
+        Assertions.assertEquals(0, bucket.tryAcquire(now));
+        Assertions.assertEquals(SECOND, bucket.tryAcquire(now));
+    }
+
+    @Test
+    void testRefillOverTime() {
+        TokenBucket bucket = new TokenBucket(1, 2);
+        long now = 1_000 * SECOND;
+
+        Assertions.assertEquals(0, bucket.tryAcquire(now));
+        Assertions.assertEquals(SECOND / 2, bucket.tryAcquire(now));
+        Assertions.assertEquals(0, bucket.tryAcquire(now + SECOND / 2));
+        Assertions.assertFalse(bucket.isFull(now + SECOND / 2));
+        Assertions.assertTrue(bucket.isFull(now + SECOND));
+    }
+
+    @Test
+    void testReleasedTokenCanBeTakenAgain() {
+        TokenBucket bucket = new TokenBucket(1, 1);
+        long now = 1_000 * SECOND;
+
+        Assertions.assertEquals(0, bucket.tryAcquire(now));
+        bucket.release();
+
+        Assertions.assertTrue(bucket.isFull(now));
+        Assertions.assertEquals(0, bucket.tryAcquire(now));
+    }
+
+    @Test
+    void testConcurrentAcquireNeverExceedsCapacity() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(100, 0.001);
+        long now = System.nanoTime();
+        AtomicInteger admitted = new AtomicInteger();
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 1_000; i++) {
+            executor.execute(() -> {
+                if (bucket.tryAcquire(now) == 0) {
+                    admitted.incrementAndGet();
+                }
+            });
+        }
+        executor.shutdown();
+        Assertions.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        Assertions.assertEquals(100, admitted.get());
+    }
+}